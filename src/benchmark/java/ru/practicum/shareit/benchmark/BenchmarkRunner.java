@@ -0,0 +1,89 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Runs the JMH benchmarks, writes the results as JSON and, when a baseline JSON from an earlier run is given,
+ * exits with status 1 if any benchmark lost more than the threshold share of its baseline throughput.
+ * Arguments are the usual JMH command line.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String result = System.getProperty("benchmark.result", "target/jmh-result.json");
+        String baseline = System.getProperty("benchmark.baseline", "");
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "0.10"));
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        if (baseline.isBlank()) {
+            return;
+        }
+
+        List<String> regressions = findRegressions(readScores(new File(baseline)), scores(results), threshold);
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("No benchmark regressed more than " + threshold * 100 + "% against " + baseline);
+    }
+
+    /**
+     * Benchmarks missing from the baseline are new and never count as regressions.
+     */
+    static List<String> findRegressions(Map<String, Double> baseline, Map<String, Double> scores, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> score : new TreeMap<>(scores).entrySet()) {
+            Double expected = baseline.get(score.getKey());
+            double actual = score.getValue();
+            if (expected != null && actual < expected * (1 - threshold)) {
+                regressions.add(String.format(Locale.ROOT, "Regression in %s: %.3f < baseline %.3f", score.getKey(), actual, expected));
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Double> scores(Collection<RunResult> results) {
+        Map<String, Double> scores = new HashMap<>();
+        for (RunResult runResult : results) {
+            Map<String, String> params = new TreeMap<>();
+            for (String key : runResult.getParams().getParamsKeys()) {
+                params.put(key, runResult.getParams().getParam(key));
+            }
+            scores.put(key(runResult.getParams().getBenchmark(), params), runResult.getPrimaryResult().getScore());
+        }
+        return scores;
+    }
+
+    static Map<String, Double> readScores(File file) throws Exception {
+        Map<String, Double> scores = new HashMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            benchmark.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            scores.put(key(benchmark.get("benchmark").asText(), params),
+                    benchmark.get("primaryMetric").get("score").asDouble());
+        }
+        return scores;
+    }
+
+    private static String key(String benchmark, Map<String, String> params) {
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BenchmarkRunnerTest {
+    private static final String SEARCH = "ru.practicum.shareit.benchmark.ItemBenchmark.searchItems{itemCount=10000}";
+    private static final String GET = "ru.practicum.shareit.benchmark.ItemBenchmark.getItems{itemCount=10000}";
+
+    @Test
+    void findRegressions_whenDropBeyondThreshold_thenReported() {
+        List<String> regressions = BenchmarkRunner.findRegressions(Map.of(SEARCH, 1000.0), Map.of(SEARCH, 899.0), 0.10);
+
+        assertEquals(List.of("Regression in " + SEARCH + ": 899.000 < baseline 1000.000"), regressions);
+    }
+
+    @Test
+    void findRegressions_whenDropWithinThresholdOrFaster_thenNotReported() {
+        List<String> regressions = BenchmarkRunner.findRegressions(Map.of(SEARCH, 1000.0, GET, 1000.0),
+                Map.of(SEARCH, 900.0, GET, 1500.0), 0.10);
+
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void findRegressions_whenBenchmarkNotInBaseline_thenNotReported() {
+        assertTrue(BenchmarkRunner.findRegressions(Map.of(), Map.of(SEARCH, 1.0), 0.10).isEmpty());
+    }
+
+    @Test
+    void readScores_whenJmhJson_thenKeysMatchRunResults(@TempDir Path directory) throws Exception {
+        Path json = directory.resolve("jmh-result.json");
+        Files.writeString(json, "[{\"benchmark\": \"ru.practicum.shareit.benchmark.ItemBenchmark.searchItems\","
+                + " \"params\": {\"itemCount\": \"10000\"}, \"primaryMetric\": {\"score\": 1234.5}},"
+                + " {\"benchmark\": \"ru.practicum.shareit.benchmark.MapperBenchmark.bookingListToListBookingDto\","
+                + " \"primaryMetric\": {\"score\": 10.0}}]", StandardCharsets.UTF_8);
+
+        Map<String, Double> scores = BenchmarkRunner.readScores(new File(json.toString()));
+
+        assertEquals(Map.of(SEARCH, 1234.5, "ru.practicum.shareit.benchmark.MapperBenchmark.bookingListToListBookingDto", 10.0), scores);
+    }
+}
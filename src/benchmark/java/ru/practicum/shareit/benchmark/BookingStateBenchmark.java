@@ -0,0 +1,37 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookingStateBenchmark {
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public String state;
+
+    private BookingService bookingService;
+
+    @Setup
+    public void init(SeededDatabase database) {
+        bookingService = database.getBean(BookingService.class);
+    }
+
+    @Benchmark
+    public List<BookingDto> getBookerBookings() {
+        return bookingService.getBookerBookings(state, 1L, 0, 20);
+    }
+
+    @Benchmark
+    public List<BookingDto> getOwnerBookings() {
+        return bookingService.getOwnerBookings(state, 1L, 0, 20);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemSearchEngine;
+import ru.practicum.shareit.item.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemBenchmark {
+
+    private ItemService itemService;
+    private ItemSearchEngine itemSearchEngine;
+
+    @Setup
+    public void init(SeededDatabase database) {
+        itemService = database.getBean(ItemService.class);
+        itemSearchEngine = database.getBean(ItemSearchEngine.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> getItems() {
+        return itemService.getItems(1L, 0, 20);
+    }
+
+    @Benchmark
+    public List<Item> searchItems() {
+        return itemSearchEngine.search("пила", PageRequest.of(0, 20));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int listSize;
+
+    private Item item;
+    private List<Booking> bookings;
+
+    @Setup
+    public void init() {
+        User owner = User.builder().id(1L).name("Misha").email("mail@mail.ru").build();
+        User booker = User.builder().id(2L).name("Vasa").email("vasa@mail.ru").build();
+        item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+        LocalDateTime start = LocalDateTime.now();
+        bookings = new ArrayList<>(listSize);
+        for (long i = 0; i < listSize; i++) {
+            bookings.add(Booking.builder()
+                    .id(i)
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i + 1))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingListToListBookingDto() {
+        return BookingMapper.bookingListToListBookingDto(bookings);
+    }
+
+    @Benchmark
+    public ItemDto itemToItemDto() {
+        return ItemMapper.itemToItemDto(item);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingAvailabilityIndex;
+import ru.practicum.shareit.item.InvertedIndexItemSearchEngine;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Application context over an H2 database seeded with {@code itemCount} items spread over {@link #USERS} owners,
+ * and one booking per item with start dates from 30 days ago to 30 days ahead and rotating statuses.
+ * Shared by every benchmark in a fork; the seeding is not measured. The in-memory indexes are seeded on
+ * {@code ApplicationReadyEvent}, before the rows exist, so they are seeded again once the rows are in.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+    public static final int USERS = 1000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] WORDS = {"Дрель", "Отвертка", "Пила", "Молоток", "Лестница", "Палатка", "Велосипед"};
+    private static final String[] STATUSES = {"WAITING", "APPROVED", "REJECTED"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int itemCount;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBeanProvider(InvertedIndexItemSearchEngine.class).ifAvailable(InvertedIndexItemSearchEngine::seed);
+        context.getBean(BookingAvailabilityIndex.class).seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@bench.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> items = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> bookings = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= itemCount; id++) {
+            String word = WORDS[(int) (id % WORDS.length)];
+            items.add(new Object[]{id, word + " " + id, "Описание: " + word, id % 10 != 0, 1 + id % USERS});
+            LocalDateTime start = now.plusDays(id % 60 - 30);
+            bookings.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)), id,
+                    1 + (id * 7 + 1) % USERS, STATUSES[(int) (id % STATUSES.length)]});
+            if (items.size() == BATCH_SIZE || id == itemCount) {
+                jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id) "
+                        + "values (?, ?, ?, ?, ?)", items);
+                jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) "
+                        + "values (?, ?, ?, ?, ?, ?)", bookings);
+                items.clear();
+                bookings.clear();
+            }
+        }
+        // ids above were assigned explicitly; move the sequences past them for rows inserted by the app
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (USERS + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE items_seq RESTART WITH " + (itemCount + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE bookings_seq RESTART WITH " + (itemCount + 1));
+    }
+}
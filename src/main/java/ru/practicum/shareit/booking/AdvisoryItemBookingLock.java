@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.metrics.MetricsConfig;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-node lock on PostgreSQL transaction-level advisory locks, taken on the transaction's own connection
+ * and released by the database at commit or rollback. Keys are (namespace, item id hash). A non-blocking attempt
+ * comes first so uncontended locks are not timed; waits are tagged by mode only and the contended key is logged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.lock", havingValue = "advisory")
+public class AdvisoryItemBookingLock implements ItemBookingLock {
+    static final int NAMESPACE = 0x5348_4B42;
+
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void lockUntilCompletion(Collection<Long> itemIds) {
+        Session session = entityManager.unwrap(Session.class);
+        itemIds.stream()
+                .map(itemId -> Long.hashCode(itemId))
+                .distinct()
+                .sorted()
+                .forEach(key -> session.doWork(connection -> {
+                    if (query(connection, "select pg_try_advisory_xact_lock(?, ?)", key)) {
+                        return;
+                    }
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    query(connection, "select pg_advisory_xact_lock(?, ?)", key);
+                    long waited = sample.stop(meterRegistry.timer(MetricsConfig.BOOKING_LOCK_WAIT, "mode", "advisory"));
+                    log.debug("Waited {} ms for booking advisory lock key {}", TimeUnit.NANOSECONDS.toMillis(waited), key);
+                }));
+    }
+
+    /**
+     * Returns the boolean the function answered; {@code pg_advisory_xact_lock} answers void, read as false.
+     */
+    private static boolean query(Connection connection, String sql, int key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, NAMESPACE);
+            statement.setInt(2, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && Boolean.TRUE.equals(resultSet.getObject(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the booking periods per item that {@link BookingService#addBooking} refuses to overlap,
+ * those of WAITING and APPROVED bookings.
+ * Periods are half-open [start, end) and kept sorted by start; together with the longest period seen
+ * for the item this bounds an overlap lookup to a single range scan, O(log n) plus the matches.
+ * Changes made inside a transaction are applied only after it commits. Periods that have ended can no longer
+ * block a booking, so each lookup first drops those of its item.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemPeriods> periodsByItemId = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<Booking> bookings = bookingRepository.findByStatusInAndEndAfter(BookingStatus.HOLDING, LocalDateTime.now());
+        bookings.forEach(this::put);
+        log.info("Booking availability index seeded with {} waiting and approved bookings", bookings.size());
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemPeriods periods = periodsByItemId.get(itemId);
+        return periods == null || periods.pruneAndFindOverlap(LocalDateTime.now(), start, end).isEmpty();
+    }
+
+    /**
+     * Returns the earliest moment not before {@code from} at which the item stays free for {@code duration}.
+     */
+    public LocalDateTime nextFreeSlot(Long itemId, LocalDateTime from, Duration duration) {
+        ItemPeriods periods = periodsByItemId.get(itemId);
+        return periods == null ? from : periods.nextFreeSlot(LocalDateTime.now(), from, duration);
+    }
+
+    /**
+     * Drops what ON DELETE CASCADE removed with a user: all periods of their items and those of their own bookings.
+     * Called once the delete has committed.
+     */
+    public void forget(Collection<Long> itemIds, Map<Long, List<Long>> bookingIdsByItemId) {
+        itemIds.forEach(periodsByItemId::remove);
+        bookingIdsByItemId.forEach((itemId, bookingIds) -> {
+            ItemPeriods periods = periodsByItemId.get(itemId);
+            if (periods != null) {
+                bookingIds.forEach(periods::remove);
+            }
+        });
+    }
+
+    /**
+     * Called when a booking is created and whenever its status changes.
+     */
+    public void onStatusChanged(Booking booking) {
+        Long bookingId = booking.getId();
+        Long itemId = booking.getItem().getId();
+        boolean holding = BookingStatus.HOLDING.contains(booking.getStatus());
+        Period period = new Period(bookingId, booking.getStart(), booking.getEnd());
+        AfterCommit.run(() -> {
+            if (holding) {
+                put(itemId, period);
+            } else {
+                ItemPeriods periods = periodsByItemId.get(itemId);
+                if (periods != null) {
+                    periods.remove(bookingId);
+                }
+            }
+        });
+    }
+
+    private void put(Booking booking) {
+        put(booking.getItem().getId(), new Period(booking.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    private void put(Long itemId, Period period) {
+        periodsByItemId.computeIfAbsent(itemId, id -> new ItemPeriods()).add(period);
+    }
+
+    private static final class Period {
+        private static final Comparator<Period> ORDER = Comparator.comparing((Period period) -> period.start)
+                .thenComparing(period -> period.bookingId);
+
+        private final Long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Period(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class ItemPeriods {
+        private final NavigableSet<Period> byStart = new TreeSet<>(Period.ORDER);
+        private final Map<Long, Period> byBookingId = new HashMap<>();
+        private Duration longest = Duration.ZERO;
+
+        synchronized void add(Period period) {
+            remove(period.bookingId);
+            byStart.add(period);
+            byBookingId.put(period.bookingId, period);
+            Duration length = Duration.between(period.start, period.end);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized void remove(Long bookingId) {
+            Period period = byBookingId.remove(bookingId);
+            if (period != null) {
+                byStart.remove(period);
+            }
+        }
+
+        synchronized Optional<Period> pruneAndFindOverlap(LocalDateTime now, LocalDateTime start, LocalDateTime end) {
+            prune(now);
+            return findOverlap(start, end);
+        }
+
+        /**
+         * Only periods started before {@code now} can have ended, so the scan stops at the first later start.
+         */
+        private void prune(LocalDateTime now) {
+            Iterator<Period> started = byStart.iterator();
+            while (started.hasNext()) {
+                Period period = started.next();
+                if (!period.start.isBefore(now)) {
+                    return;
+                }
+                if (!period.end.isAfter(now)) {
+                    started.remove();
+                    byBookingId.remove(period.bookingId);
+                }
+            }
+        }
+
+        private Optional<Period> findOverlap(LocalDateTime start, LocalDateTime end) {
+            if (!end.isAfter(start)) {
+                return Optional.empty();
+            }
+            Period lowest = new Period(Long.MIN_VALUE, start.minus(longest), null);
+            Period highest = new Period(Long.MIN_VALUE, end, null);
+            Period overlap = null;
+            for (Period period : byStart.subSet(lowest, true, highest, false)) {
+                if (period.end.isAfter(start) && (overlap == null || period.end.isAfter(overlap.end))) {
+                    overlap = period;
+                }
+            }
+            return Optional.ofNullable(overlap);
+        }
+
+        synchronized LocalDateTime nextFreeSlot(LocalDateTime now, LocalDateTime from, Duration duration) {
+            prune(now);
+            LocalDateTime candidate = from;
+            Optional<Period> overlap = findOverlap(candidate, candidate.plus(duration));
+            while (overlap.isPresent()) {
+                candidate = overlap.get().end;
+                overlap = findOverlap(candidate, candidate.plus(duration));
+            }
+            return candidate;
+        }
+    }
+}
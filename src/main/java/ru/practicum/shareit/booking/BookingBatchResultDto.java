@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one entry of a bulk booking request ({@code POST /bookings/batch}, {@code PATCH /bookings/approval}),
+ * in request order. {@code status} is the code the single-booking endpoint would have answered with.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResultDto {
+    private int index;
+    private int status;
+    private BookingDto booking;
+    private String error;
+}
@@ -2,7 +2,11 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -23,12 +27,30 @@ public class BookingController {
         return bookingService.addBooking(bookingWithoutObjDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addBookings(@RequestBody List<BookingWithoutObjDto> bookings, @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Received request to POST /bookings/batch with RequestHeader X-Sharer-User-Id = {} and {} bookings", userId, bookings.size());
+        return bookingService.addBookings(bookings, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approvedBooking(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId, @RequestParam Boolean approved) {
         log.info("Received request to PATCH /bookings/{} with RequestHeader X-Sharer-User-Id = {} and approved: {}", bookingId, userId, approved);
         return bookingService.approvedBooking(bookingId, approved, userId);
     }
 
+    @PatchMapping("/approval")
+    public List<BookingBatchResultDto> approveBookings(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody List<BookingDecisionDto> decisions) {
+        log.info("Received request to PATCH /bookings/approval with RequestHeader X-Sharer-User-Id = {} and {} decisions", userId, decisions.size());
+        return bookingService.approveBookings(decisions, userId);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingStatuses(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Received request to GET /bookings/events with RequestHeader X-Sharer-User-Id = {} and Last-Event-ID = {}", userId, lastEventId);
+        return bookingService.streamBookingStatuses(userId, lastEventId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long bookingId) {
         log.info("Received request to GET /bookings/{} with RequestHeader X-Sharer-User-Id = {}", bookingId, userId);
@@ -36,14 +58,30 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookerBookings(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Received request to GET /bookings?state={} with RequestHeader X-Sharer-User-Id = {}", state, userId);
-        return bookingService.getBookerBookings(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getBookerBookings(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String after) {
+        log.info("Received request to GET /bookings?state={}&after={} with RequestHeader X-Sharer-User-Id = {}", state, after, userId);
+        if (after != null) {
+            return withNextCursor(bookingService.getBookerBookingsAfter(state, userId, after, size), size);
+        }
+        return withNextCursor(bookingService.getBookerBookings(state, userId, from, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Received request to GET /bookings/owner?state={} with RequestHeader X-Sharer-User-Id = {}", state, userId);
-        return bookingService.getOwnerBookings(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getOwnerBookings(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String after) {
+        log.info("Received request to GET /bookings/owner?state={}&after={} with RequestHeader X-Sharer-User-Id = {}", state, after, userId);
+        if (after != null) {
+            return withNextCursor(bookingService.getOwnerBookingsAfter(state, userId, after, size), size);
+        }
+        return withNextCursor(bookingService.getOwnerBookings(state, userId, from, size), size);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Integer size) {
+        if (bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(last.getStart(), last.getId()))
+                .body(bookings);
     }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of {@code PATCH /bookings/approval}: the owner's decision on a booking.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingDecisionDto {
+    private Long bookingId;
+    private Boolean approved;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.metrics.MetricVariant;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Parameters of a booking list request: whose bookings, which state as of {@code now},
+ * and either an offset window or a keyset cursor. Rows are ordered by start and id, newest first.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingQuery implements MetricVariant {
+    private final Role role;
+    private final Long userId;
+    private final BookingState state;
+    private final LocalDateTime now;
+    private final PageCursor after;
+    private final long offset;
+    private final int limit;
+
+    @Override
+    public String metricVariant() {
+        return role + "_" + state;
+    }
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingQueryRepository {
+
+    List<Booking> findByQuery(BookingQuery query);
+
+    /**
+     * Approves, in one statement, every given booking of the owner that is not approved yet and does not overlap
+     * another approved booking of its item. Clears the persistence context, as a bulk update would.
+     */
+    int approveOwnedWhereFree(Collection<Long> ids, Long ownerId);
+}
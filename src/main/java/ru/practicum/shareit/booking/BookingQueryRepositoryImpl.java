@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.query.NativeQuery;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compiles a {@link BookingQuery} into one criteria query. Every value is bound as a parameter,
+ * so each (role, state, cursor or offset) combination always yields the same SQL text.
+ * The item, its owner and the booker are fetch-joined: that is the whole graph {@link BookingDto} reads,
+ * so mapping a page issues no further selects.
+ */
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    private static final String APPROVE_OWNED_WHERE_FREE = "update bookings b set status = 'APPROVED', version = version + 1"
+            + " where b.id in (?1) and b.status <> 'APPROVED'"
+            + " and b.item_id in (select i.id from items i where i.owner_id = ?2)"
+            + " and not exists (select 1 from bookings o where o.item_id = b.item_id and o.id <> b.id"
+            + " and o.status = 'APPROVED' and o.start_date < b.end_date and o.end_date > b.start_date)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Native SQL because the overlap check has to be correlated with the updated row, which Hibernate's bulk
+     * update cannot express. Declaring the Booking space keeps the other second-level cache regions intact.
+     */
+    @Override
+    public int approveOwnedWhereFree(Collection<Long> ids, Long ownerId) {
+        int updated = entityManager.createNativeQuery(APPROVE_OWNED_WHERE_FREE)
+                .setParameter(1, ids)
+                .setParameter(2, ownerId)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Booking.class)
+                .executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public List<Booking> findByQuery(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> criteriaQuery = cb.createQuery(Booking.class);
+        Root<Booking> booking = criteriaQuery.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item", JoinType.INNER);
+        item.fetch("owner", JoinType.INNER);
+        booking.fetch("booker", JoinType.INNER);
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<BookingStatus> status = booking.get("status");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        Path<Long> user = query.getRole() == BookingQuery.Role.BOOKER
+                ? booking.get("booker").get("id")
+                : item.get("owner").get("id");
+        predicates.add(cb.equal(user, query.getUserId()));
+        LocalDateTime now = query.getNow();
+        switch (query.getState()) {
+            case CURRENT:
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(cb.greaterThanOrEqualTo(start, now));
+                predicates.add(cb.equal(status, BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(status.in(BookingStatus.REJECTED, BookingStatus.CANCELED));
+                break;
+            default:
+                break;
+        }
+        PageCursor after = query.getAfter();
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, after.getPosition()),
+                    cb.and(cb.equal(start, after.getPosition()), cb.lessThan(id, after.getId()))));
+        }
+        criteriaQuery.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(criteriaQuery)
+                .setFirstResult((int) query.getOffset())
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+}
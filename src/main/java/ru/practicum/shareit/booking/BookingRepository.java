@@ -1,42 +1,65 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerId(Long bookerId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findByBookerIdAndStartLessThanAndEndGreaterThan(Long bookerId, LocalDateTime localDateTime, LocalDateTime localDateTime2, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    List<Booking> findByIdInAndItemOwnerId(Collection<Long> ids, Long ownerId);
 
-    List<Booking> findByBookerIdAndStartGreaterThanEqualAndStatusIs(Long bookerId, LocalDateTime localDateTime, BookingStatus status, Pageable pageable);
+    /**
+     * Sets the status unless the booking already has it or another booking of the same item with that status
+     * overlaps [start, end). The item and period are passed in because Hibernate does not qualify the updated
+     * entity's columns inside a subquery, so the overlap check cannot be correlated with {@code b}.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id = ?1 and b.status <> ?3"
+            + " and b.item.id in (select i.id from Item i where i.owner.id = ?2)"
+            + " and not exists (select o.id from Booking o where o.item.id = ?4 and o.id <> ?1 and o.status = ?3"
+            + " and o.start < ?6 and o.end > ?5)")
+    int updateOwnedStatusWhereNotAlreadyAndFree(Long id, Long ownerId, BookingStatus status,
+                                                Long itemId, LocalDateTime start, LocalDateTime end);
 
-    @Query(" select b from Booking as b" +
-            " where b.booker.id = ?1 and (b.status = 'REJECTED' OR b.status = 'CANCELED') ")
-    List<Booking> getBookerRejectedBooking(Long bookerId, Pageable pageable);
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id = ?1"
+            + " and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateOwnedStatus(Long id, Long ownerId, BookingStatus status);
 
-    List<Booking> findByBookerIdAndStartGreaterThan(Long bookerId, LocalDateTime localDateTime, Pageable pageable);
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id in ?1"
+            + " and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateOwnedStatusIn(Collection<Long> ids, Long ownerId, BookingStatus status);
 
-    List<Booking> findByBookerIdAndEndLessThan(Long bookerId, LocalDateTime localDateTime, Pageable pageable);
+    @Query("select b.id from Booking b where b.id in ?1 and b.status = ?2")
+    List<Long> findIdsByIdInAndStatus(Collection<Long> ids, BookingStatus status);
 
-    List<Booking> findByItemOwnerId(Long ownerId, Pageable pageable);
+    @Query("select b.id from Booking b where b.id in ?1 and b.status <> ?2")
+    List<Long> findIdsByIdInAndStatusNot(Collection<Long> ids, BookingStatus status);
 
-    List<Booking> findByItemOwnerIdAndStartGreaterThan(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+    @Query("select b.id from Booking b where b.id in ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
 
-    List<Booking> findByItemOwnerIdAndStartLessThanAndEndGreaterThan(Long ownerId, LocalDateTime localDateTime, LocalDateTime localDateTime2, Pageable pageable);
+    List<Booking> findByStatusInAndEndAfter(Collection<BookingStatus> statuses, LocalDateTime localDateTime);
 
-    List<Booking> findByItemOwnerIdAndStartGreaterThanEqualAndStatus(Long ownerId, LocalDateTime localDateTime, BookingStatus status, Pageable pageable);
+    @Query("select b from Booking b where b.booker.id = ?1 and b.status in ?2 and b.end > ?3")
+    List<Booking> findByBookerIdAndStatusInAndEndAfter(Long bookerId, Collection<BookingStatus> statuses, LocalDateTime end);
 
-    @Query(" select b from Booking as b" +
-            " where b.item.owner.id = ?1 and" +
-            " (b.status = 'REJECTED' OR b.status = 'CANCELED')")
-    List<Booking> getOwnerRejectedBooking(Long ownerId, Pageable pageable);
+    @Query("select count(b) > 0 from Booking b where b.item.id = ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3")
+    boolean existsOverlapping(Long itemId, Collection<BookingStatus> statuses, LocalDateTime start, LocalDateTime end);
 
-    List<Booking> findByItemOwnerIdAndEndLessThan(Long ownerId, LocalDateTime localDateTime, Pageable pageable);
+    @Query("select b from Booking b where b.item.id in ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3")
+    List<Booking> findOverlapping(Collection<Long> itemIds, Collection<BookingStatus> statuses, LocalDateTime start, LocalDateTime end);
 
     @Query(value = "SELECT * from bookings as b " +
             " where b.item_id = ?1 " +
@@ -54,6 +77,22 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             " limit 1", nativeQuery = true)
     Optional<Booking> getItemNextBooking(Long itemId, LocalDateTime localDateTime);
 
+    @Query(value = "select * from bookings as b" +
+            " where b.id in (" +
+            "   select last_b.id from (" +
+            "     select lb.id, row_number() over (partition by lb.item_id order by lb.start_date desc) as rn" +
+            "     from bookings as lb" +
+            "     where lb.item_id in (?1) and lb.start_date < ?2 and lb.status = 'APPROVED'" +
+            "   ) as last_b where last_b.rn = 1" +
+            "   union all" +
+            "   select next_b.id from (" +
+            "     select nb.id, row_number() over (partition by nb.item_id order by nb.start_date asc) as rn" +
+            "     from bookings as nb" +
+            "     where nb.item_id in (?1) and nb.start_date > ?2 and nb.status = 'APPROVED'" +
+            "   ) as next_b where next_b.rn = 1" +
+            " )", nativeQuery = true)
+    List<Booking> getItemsLastAndNextBookings(Collection<Long> itemIds, LocalDateTime localDateTime);
+
     @Query(value = "select * from bookings as b" +
             " where b.booker_id = ?1 and" +
             " b.status = 'APPROVED' and" +
@@ -1,57 +1,362 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.BadDataException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.*;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
 import ru.practicum.shareit.user.UserRepository;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class BookingService {
+    public static final int MAX_BATCH_SIZE = 1000;
+
     private final BookingRepository bookingRepository;
     private final BookingValidator bookingValidator;
     private final UserRepository userRepository;
+    private final UserExistenceGuard userExistenceGuard;
     private final ItemRepository itemRepository;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+    private final ItemBookingLock itemBookingLock;
+    private final BookingStatusStream bookingStatusStream;
+    private final Validator validator;
 
+    @Transactional
     public BookingDto addBooking(BookingWithoutObjDto bookingDto, Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not Found"));
         Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() -> new NotFoundException("Item with ID " + bookingDto.getItemId() + " not found"));
         bookingValidator.checkItemAvailable(item);
-        bookingDto.setStatus(BookingStatus.WAITING);
         Booking booking = BookingMapper.bookingDtoToBooking(bookingDto);
+        booking.setStatus(BookingStatus.WAITING);
         booking.setBooker(user);
         booking.setItem(item);
         bookingValidator.checkBookingStartBeforeEnd(booking);
         bookingValidator.checkNotYourOwnItem(userId, booking);
-        return BookingMapper.bookingToBookingDto(bookingRepository.save(booking));
+        itemBookingLock.lockUntilCompletion(List.of(item.getId()));
+        if (bookingRepository.existsOverlapping(item.getId(), BookingStatus.HOLDING, booking.getStart(), booking.getEnd())) {
+            log.warn("The item id {} is already booked for this period", item.getId());
+            throw new BadDataException("The item is already booked for this period");
+        }
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingAvailabilityIndex.onStatusChanged(savedBooking);
+        return BookingMapper.bookingToBookingDto(savedBooking);
+    }
+
+    /**
+     * Creates many bookings for one booker in a single transaction. The booker and all items are loaded
+     * with one query each, every entry gets the same checks as {@link #addBooking} in memory, and the accepted
+     * bookings are inserted as JDBC batches. The items stay locked until commit. A rejected entry does not affect the others.
+     */
+    @Transactional
+    public List<BookingBatchResultDto> addBookings(List<BookingWithoutObjDto> bookingDtos, Long userId) {
+        if (bookingDtos.size() > MAX_BATCH_SIZE) {
+            log.warn("Batch of {} bookings exceeds the limit of {}", bookingDtos.size(), MAX_BATCH_SIZE);
+            throw new BadDataException("A batch may contain at most " + MAX_BATCH_SIZE + " bookings");
+        }
+        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not Found"));
+        Set<Long> itemIds = bookingDtos.stream()
+                .filter(Objects::nonNull)
+                .map(BookingWithoutObjDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemIds.isEmpty() ? Map.of() : itemRepository.findWithOwnerByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        Map<Long, List<Booking>> held = new HashMap<>();
+        if (!items.isEmpty()) {
+            itemBookingLock.lockUntilCompletion(items.keySet());
+            findHeldPeriods(bookingDtos, items.keySet()).forEach(booking ->
+                    held.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking));
+        }
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            if (bookingDtos.get(i) == null) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, "Booking must not be null");
+                continue;
+            }
+            try {
+                accepted.add(toNewBooking(bookingDtos.get(i), user, items, held));
+                acceptedIndexes.add(i);
+            } catch (NotFoundException e) {
+                results[i] = failed(i, HttpStatus.NOT_FOUND, e.getMessage());
+            } catch (BadDataException e) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        saved.forEach(bookingAvailabilityIndex::onStatusChanged);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results[index] = BookingBatchResultDto.builder()
+                    .index(index)
+                    .status(HttpStatus.OK.value())
+                    .booking(BookingMapper.bookingToBookingDto(saved.get(i)))
+                    .build();
+        }
+        log.info("Batch of {} bookings for user id {}: {} created", bookingDtos.size(), userId, saved.size());
+        return List.of(results);
+    }
+
+    /**
+     * Loads, in one query, the WAITING and APPROVED bookings of the locked items that overlap the span of all
+     * requested periods; each entry is then checked against them in memory.
+     */
+    private List<Booking> findHeldPeriods(List<BookingWithoutObjDto> bookingDtos, Set<Long> itemIds) {
+        List<BookingWithoutObjDto> periods = bookingDtos.stream()
+                .filter(bookingDto -> bookingDto != null && bookingDto.getStart() != null && bookingDto.getEnd() != null)
+                .collect(Collectors.toList());
+        if (periods.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime from = periods.stream().map(BookingWithoutObjDto::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = periods.stream().map(BookingWithoutObjDto::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        return bookingRepository.findOverlapping(itemIds, BookingStatus.HOLDING, from, to);
+    }
+
+    private Booking toNewBooking(BookingWithoutObjDto bookingDto, User user, Map<Long, Item> items, Map<Long, List<Booking>> held) {
+        Set<ConstraintViolation<BookingWithoutObjDto>> violations = validator.validate(bookingDto);
+        if (!violations.isEmpty()) {
+            throw new BadDataException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        Item item = items.get(bookingDto.getItemId());
+        if (item == null) {
+            throw new NotFoundException("Item with ID " + bookingDto.getItemId() + " not found");
+        }
+        bookingValidator.checkItemAvailable(item);
+        Booking booking = BookingMapper.bookingDtoToBooking(bookingDto);
+        booking.setId(null);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setBooker(user);
+        booking.setItem(item);
+        bookingValidator.checkBookingStartBeforeEnd(booking);
+        bookingValidator.checkNotYourOwnItem(user.getId(), booking);
+        List<Booking> itemHeld = held.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+        if (itemHeld.stream().anyMatch(other -> other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart()))) {
+            throw new BadDataException("The item is already booked for this period");
+        }
+        // an accepted entry holds its period against the later entries of the same batch
+        itemHeld.add(booking);
+        return booking;
     }
 
+    /**
+     * The booking is loaded once for the ownership and status checks; the transition itself is one guarded
+     * UPDATE that, for an approval, only matches a booking not already approved and not overlapping another
+     * approved booking of the item. When no row matched, the booking is re-read to tell which error applies.
+     */
+    @Transactional
     public BookingDto approvedBooking(Long bookingId, Boolean isApproved, Long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Booking with ID " + bookingId + " not found"));
         if (!booking.getItem().getOwner().getId().equals(userId)) {
             log.warn("The user id {} does not have rights to edit items", userId);
             throw new NotFoundException("User id " + userId + " does not have rights to edit item");
         }
         bookingValidator.checkBookingStatus(isApproved, booking);
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         if (isApproved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            // the overlap guard only sees committed approvals, so concurrent approvals of one item take turns
+            itemBookingLock.lockUntilCompletion(List.of(booking.getItem().getId()));
+        }
+        if (updateOwnedStatus(booking, userId, status) == 0) {
+            throw unappliedDecision(bookingId, status);
         }
+        // the update detaches the loaded booking, so setting the status issues no further UPDATE
+        booking.setStatus(status);
+        bookingAvailabilityIndex.onStatusChanged(booking);
+        BookingDto bookingDto = BookingMapper.bookingToBookingDto(booking);
+        bookingStatusStream.publish(bookingDto);
+        return bookingDto;
+    }
 
-        return BookingMapper.bookingToBookingDto(bookingRepository.save(booking));
+    /**
+     * Applies many owner decisions at once. Ownership is checked with one query that loads only the owner's
+     * bookings; the approvals and the rejections are then one guarded UPDATE each, and only the entries whose row
+     * actually changed are reported, indexed and published. As with {@link #approvedBooking}, an already approved
+     * booking cannot be approved again, nor can one overlapping another approved booking of the item (including
+     * one approved earlier in the same batch), while rejecting is allowed from any status.
+     */
+    @Transactional
+    public List<BookingBatchResultDto> approveBookings(List<BookingDecisionDto> decisions, Long userId) {
+        if (decisions.size() > MAX_BATCH_SIZE) {
+            log.warn("Batch of {} decisions exceeds the limit of {}", decisions.size(), MAX_BATCH_SIZE);
+            throw new BadDataException("A batch may contain at most " + MAX_BATCH_SIZE + " decisions");
+        }
+        userExistenceGuard.requireExists(userId);
+        Set<Long> bookingIds = decisions.stream()
+                .filter(Objects::nonNull)
+                .map(BookingDecisionDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Booking> owned = bookingIds.isEmpty() ? Map.of() : bookingRepository.findByIdInAndItemOwnerId(bookingIds, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[decisions.size()];
+        Set<Long> seen = new HashSet<>();
+        List<Booking> approved = new ArrayList<>();
+        List<Booking> rejected = new ArrayList<>();
+        Map<Long, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionDto decision = decisions.get(i);
+            if (decision == null || decision.getBookingId() == null || decision.getApproved() == null) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, "bookingId and approved are required");
+            } else if (!seen.add(decision.getBookingId())) {
+                results[i] = failed(i, HttpStatus.BAD_REQUEST, "Booking with ID " + decision.getBookingId() + " appears more than once");
+            } else if (!owned.containsKey(decision.getBookingId())) {
+                results[i] = failed(i, HttpStatus.NOT_FOUND, "Booking with ID " + decision.getBookingId() + " not found");
+            } else {
+                Booking booking = owned.get(decision.getBookingId());
+                try {
+                    bookingValidator.checkBookingStatus(decision.getApproved(), booking);
+                    (decision.getApproved() ? approved : rejected).add(booking);
+                    indexes.put(booking.getId(), i);
+                } catch (BadDataException e) {
+                    results[i] = failed(i, HttpStatus.BAD_REQUEST, e.getMessage());
+                }
+            }
+        }
+        if (!approved.isEmpty()) {
+            itemBookingLock.lockUntilCompletion(approved.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet()));
+        }
+        int approvedCount = approveAll(approved, userId, results, indexes);
+        int rejectedCount = rejectAll(rejected, userId, results, indexes);
+        log.info("Owner id {} decided on {} bookings: {} approved, {} rejected", userId, decisions.size(), approvedCount, rejectedCount);
+        return List.of(results);
+    }
+
+    /**
+     * One UPDATE does not see its own changes, so an entry overlapping one accepted earlier in the batch is refused
+     * in memory first. The rows the UPDATE changed are read back: the items are locked, so no other approval of them
+     * commits meanwhile, and the bookings unapproved before the statement and approved after it are exactly those.
+     */
+    private int approveAll(List<Booking> bookings, Long ownerId, BookingBatchResultDto[] results, Map<Long, Integer> indexes) {
+        Map<Long, List<Booking>> accepted = new HashMap<>();
+        List<Booking> candidates = new ArrayList<>();
+        for (Booking booking : bookings) {
+            List<Booking> itemAccepted = accepted.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>());
+            if (itemAccepted.stream().anyMatch(other -> other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart()))) {
+                int index = indexes.get(booking.getId());
+                results[index] = failed(index, HttpStatus.BAD_REQUEST, "The item is already booked for this period");
+                continue;
+            }
+            itemAccepted.add(booking);
+            candidates.add(booking);
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = candidates.stream().map(Booking::getId).collect(Collectors.toList());
+        Set<Long> changed = new HashSet<>(bookingRepository.findIdsByIdInAndStatusNot(ids, BookingStatus.APPROVED));
+        bookingRepository.approveOwnedWhereFree(ids, ownerId);
+        changed.retainAll(bookingRepository.findIdsByIdInAndStatus(ids, BookingStatus.APPROVED));
+        return report(candidates, BookingStatus.APPROVED, changed, results, indexes);
+    }
+
+    /**
+     * Rejecting is allowed from any status, so every owned booking that still exists is changed; the survivors
+     * are only looked up when the count falls short.
+     */
+    private int rejectAll(List<Booking> bookings, Long ownerId, BookingBatchResultDto[] results, Map<Long, Integer> indexes) {
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).collect(Collectors.toList());
+        int updated = bookingRepository.updateOwnedStatusIn(ids, ownerId, BookingStatus.REJECTED);
+        Set<Long> changed = new HashSet<>(updated == ids.size() ? ids : bookingRepository.findIdsByIdIn(ids));
+        return report(bookings, BookingStatus.REJECTED, changed, results, indexes);
+    }
+
+    private int report(List<Booking> bookings, BookingStatus status, Set<Long> changed,
+                       BookingBatchResultDto[] results, Map<Long, Integer> indexes) {
+        int applied = 0;
+        for (Booking booking : bookings) {
+            int index = indexes.get(booking.getId());
+            if (!changed.contains(booking.getId())) {
+                RuntimeException error = unappliedDecision(booking.getId(), status);
+                HttpStatus httpStatus = error instanceof NotFoundException ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+                results[index] = failed(index, httpStatus, error.getMessage());
+                continue;
+            }
+            applied++;
+            // the update detaches the loaded bookings, so setting the status issues no further UPDATE
+            booking.setStatus(status);
+            bookingAvailabilityIndex.onStatusChanged(booking);
+            BookingDto bookingDto = BookingMapper.bookingToBookingDto(booking);
+            bookingStatusStream.publish(bookingDto);
+            results[index] = BookingBatchResultDto.builder()
+                    .index(index)
+                    .status(HttpStatus.OK.value())
+                    .booking(bookingDto)
+                    .build();
+        }
+        return applied;
+    }
+
+    private int updateOwnedStatus(Booking booking, Long ownerId, BookingStatus status) {
+        if (status != BookingStatus.APPROVED) {
+            return bookingRepository.updateOwnedStatus(booking.getId(), ownerId, status);
+        }
+        return bookingRepository.updateOwnedStatusWhereNotAlreadyAndFree(booking.getId(), ownerId, status,
+                booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+
+    private RuntimeException unappliedDecision(Long bookingId, BookingStatus status) {
+        Optional<Booking> current = bookingRepository.findById(bookingId);
+        if (current.isEmpty()) {
+            return new NotFoundException("Booking with ID " + bookingId + " not found");
+        }
+        if (status == BookingStatus.APPROVED && current.get().getStatus() != BookingStatus.APPROVED) {
+            log.warn("Booking id {} overlaps an approved booking of item id {}", bookingId, current.get().getItem().getId());
+            return new BadDataException("The item is already booked for this period");
+        }
+        log.warn("Booking id {} changed concurrently, cannot set {}", bookingId, status);
+        return new BadDataException("Cannot be approved in this status");
+    }
+
+    private static BookingBatchResultDto failed(int index, HttpStatus status, String error) {
+        return BookingBatchResultDto.builder().index(index).status(status.value()).error(error).build();
+    }
+
+    public SseEmitter streamBookingStatuses(Long userId, String lastEventId) {
+        userExistenceGuard.requireExists(userId);
+        return bookingStatusStream.subscribe(userId, lastEventId);
     }
 
     public BookingDto getBooking(Long bookingId, Long userId) {
@@ -61,49 +366,42 @@ public class BookingService {
     }
 
     public List<BookingDto> getBookerBookings(String state, Long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         Pageable page = convertToPageSettings(from, size, "start");
-        switch (state) {
-            case "ALL":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByBookerId(userId, page));
-            case "CURRENT":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByBookerIdAndStartLessThanAndEndGreaterThan(userId, LocalDateTime.now(), LocalDateTime.now(), page));
-            case "FUTURE":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByBookerIdAndStartGreaterThan(userId, LocalDateTime.now(), page));
-            case "PAST":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByBookerIdAndEndLessThan(userId, LocalDateTime.now(), page));
-            case "REJECTED":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.getBookerRejectedBooking(userId, page));
-            case "WAITING":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByBookerIdAndStartGreaterThanEqualAndStatusIs(userId, LocalDateTime.now(), BookingStatus.WAITING, page));
-            default:
-                throw new BadDataException("Unknown state: UNSUPPORTED_STATUS");
-        }
+        return findBookings(BookingQuery.Role.BOOKER, state, userId, page.getOffset(), page.getPageSize(), null);
     }
 
     public List<BookingDto> getOwnerBookings(String state, Long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         Pageable page = convertToPageSettings(from, size, "start");
-        switch (state) {
-            case "ALL":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByItemOwnerId(userId, page));
-            case "CURRENT":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByItemOwnerIdAndStartLessThanAndEndGreaterThan(userId, LocalDateTime.now(), LocalDateTime.now(), page));
-            case "FUTURE":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByItemOwnerIdAndStartGreaterThan(userId, LocalDateTime.now(), page));
-            case "PAST":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByItemOwnerIdAndEndLessThan(userId, LocalDateTime.now(), page));
-            case "REJECTED":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.getOwnerRejectedBooking(userId, page));
-            case "WAITING":
-                return BookingMapper.bookingListToListBookingDto(bookingRepository.findByItemOwnerIdAndStartGreaterThanEqualAndStatus(userId, LocalDateTime.now(), BookingStatus.WAITING, page));
-            default:
-                throw new BadDataException("Unknown state: UNSUPPORTED_STATUS");
-        }
+        return findBookings(BookingQuery.Role.OWNER, state, userId, page.getOffset(), page.getPageSize(), null);
+    }
+
+    public List<BookingDto> getBookerBookingsAfter(String state, Long userId, String after, Integer size) {
+        userExistenceGuard.requireExists(userId);
+        return findBookings(BookingQuery.Role.BOOKER, state, userId, 0, size, PageCursor.decode(after));
+    }
+
+    public List<BookingDto> getOwnerBookingsAfter(String state, Long userId, String after, Integer size) {
+        userExistenceGuard.requireExists(userId);
+        return findBookings(BookingQuery.Role.OWNER, state, userId, 0, size, PageCursor.decode(after));
+    }
+
+    private List<BookingDto> findBookings(BookingQuery.Role role, String state, Long userId, long offset, int limit, PageCursor after) {
+        BookingQuery query = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(BookingState.from(state))
+                .now(LocalDateTime.now())
+                .after(after)
+                .offset(offset)
+                .limit(limit)
+                .build();
+        return BookingMapper.bookingListToListBookingDto(bookingRepository.findByQuery(query));
     }
 
     public Pageable convertToPageSettings(Integer from, Integer size, String sortingByField) {
         int page = from >= 0 ? Math.round((float) from / size) : -1;
-        return PageRequest.of(page, size, Sort.by(sortingByField).descending());
+        return PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, sortingByField, "id"));
     }
 }
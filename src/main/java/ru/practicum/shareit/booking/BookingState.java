@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.exception.BadDataException;
+
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    REJECTED;
+
+    public static BookingState from(String state) {
+        for (BookingState value : values()) {
+            if (value.name().equals(state)) {
+                return value;
+            }
+        }
+        throw new BadDataException("Unknown state: UNSUPPORTED_STATUS");
+    }
+}
@@ -1,8 +1,16 @@
 package ru.practicum.shareit.booking;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED;
+
+    /**
+     * Statuses whose period is no longer open to other bookers: a WAITING booking holds it until the owner decides.
+     */
+    public static final Set<BookingStatus> HOLDING = EnumSet.of(WAITING, APPROVED);
 }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.sse.SseBroadcaster;
+import ru.practicum.shareit.sse.SseProperties;
+import ru.practicum.shareit.sse.SseSenderPool;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+/**
+ * Pushes owner decisions to {@code GET /bookings/events}: each booker receives the bookings of theirs
+ * that were approved or rejected, instead of polling {@code GET /bookings/{bookingId}}.
+ */
+@Component
+public class BookingStatusStream {
+    private final SseBroadcaster<BookingDto> broadcaster;
+
+    public BookingStatusStream(SseProperties properties, SseSenderPool sseSenderPool, MeterRegistry meterRegistry) {
+        this.broadcaster = new SseBroadcaster<>("booking", properties, sseSenderPool, meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return broadcaster.subscribe(lastEventId, booking -> userId.equals(booking.getBooker().getId()));
+    }
+
+    public void publish(BookingDto booking) {
+        AfterCommit.run(() -> broadcaster.publish(booking));
+    }
+}
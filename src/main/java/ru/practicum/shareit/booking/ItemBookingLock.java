@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import java.util.Collection;
+
+/**
+ * Serializes booking creation and approval per item: whoever holds an item's lock runs the overlap check
+ * against the database and the insert or approve alone, while bookings of other items proceed in parallel.
+ * Locks are held until the current transaction completes, so the next holder sees the committed booking.
+ * Implementations are selected with the {@code shareit.booking.lock} property.
+ */
+public interface ItemBookingLock {
+
+    /**
+     * Locks every given item until the current transaction completes. Must be called inside a transaction;
+     * several items are always locked in the same order, so two callers cannot deadlock.
+     */
+    void lockUntilCompletion(Collection<Long> itemIds);
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.metrics.MetricsConfig;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-node lock table: a fixed array of fair locks, an item maps to the stripe of its id's hash.
+ * Items sharing a stripe serialize with each other, which only costs throughput, never correctness.
+ * A wait is timed only when the stripe was actually held by someone else; the timer is tagged by mode alone
+ * to keep its cardinality fixed, and the stripe that was waited for is logged instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.lock", havingValue = "striped", matchIfMissing = true)
+public class StripedItemBookingLock implements ItemBookingLock {
+    private final ReentrantLock[] stripes;
+    private final MeterRegistry meterRegistry;
+
+    public StripedItemBookingLock(@Value("${shareit.booking.lock.stripes:1024}") int stripes, MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void lockUntilCompletion(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item booking locks are held until commit and need a transaction");
+        }
+        itemIds.stream()
+                .map(this::stripe)
+                .distinct()
+                .sorted()
+                .forEach(this::lock);
+    }
+
+    int stripe(Long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), stripes.length);
+    }
+
+    private void lock(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        if (!lock.tryLock()) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            lock.lock();
+            long waited = sample.stop(meterRegistry.timer(MetricsConfig.BOOKING_LOCK_WAIT, "mode", "striped"));
+            log.debug("Waited {} ms for booking lock stripe {}", TimeUnit.NANOSECONDS.toMillis(waited), stripe);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
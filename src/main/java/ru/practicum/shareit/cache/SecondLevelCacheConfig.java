@@ -0,0 +1,31 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Gives the entity manager factory its own JCache manager. The provider's default manager is shared by
+ * the whole JVM, so application contexts over different databases (tests, benchmarks) would otherwise read
+ * each other's cached entities. Regions are still configured by {@code application.conf}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit:" + UUID.randomUUID()), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the read-only flag is only known once the transaction has started, after the connection is requested.
+ * A replica may not have the latest commits yet, so a session routed to one stops putting what it reads into the
+ * second-level and query caches: an entry stamped after the primary's invalidation would be served as fresh
+ * until the next write to its table or its expiry.
+ * Route counters are bound late, as a {@link MeterBinder}, since the meter registry itself depends on the data sources.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaHealthMonitor monitor;
+    private volatile Counter primaryWrites;
+    private volatile Counter replicaReads;
+    private volatile Counter fallbackReads;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, ReplicaHealthMonitor monitor) {
+        this.monitor = monitor;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaPool replica : monitor.getReplicas()) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        primaryWrites = route(meterRegistry, "primary");
+        replicaReads = route(meterRegistry, "replica");
+        fallbackReads = route(meterRegistry, "fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            increment(primaryWrites);
+            return PRIMARY;
+        }
+        Optional<ReplicaPool> replica = monitor.nextHealthy();
+        if (replica.isEmpty()) {
+            increment(fallbackReads);
+            return PRIMARY;
+        }
+        increment(replicaReads);
+        readCachesOnly();
+        return replica.get().getName();
+    }
+
+    private static void readCachesOnly() {
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder) {
+                ((EntityManagerHolder) resource).getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+            }
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("shareit.datasource.route")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically checks that each replica answers and is within {@code maxLag} of the primary.
+ * Reads are spread round-robin over the healthy replicas only.
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements MeterBinder, AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<ReplicaPool> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaHealthMonitor(List<ReplicaPool> replicas, Duration maxLag, String lagQuery) {
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Registers the health and lag gauges and, for Hikari replica pools, the usual {@code hikaricp.*} pool metrics.
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (ReplicaPool replica : replicas) {
+            if (replica.getDataSource() instanceof HikariDataSource) {
+                HikariDataSource pool = (HikariDataSource) replica.getDataSource();
+                if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                }
+            }
+            Gauge.builder("shareit.datasource.replica.healthy", replica, pool -> pool.isHealthy() ? 1 : 0)
+                    .tag("pool", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("shareit.datasource.replica.lag", replica, pool -> pool.getLagSeconds() == null ? Double.NaN : pool.getLagSeconds())
+                    .tag("pool", replica.getName())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    public void start(Duration checkInterval) {
+        check();
+        scheduler.scheduleWithFixedDelay(this::check, checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void check() {
+        for (ReplicaPool replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                Double lag = lagSeconds(connection);
+                boolean healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS)
+                        && (lag == null || lag <= maxLag.toSeconds());
+                replica.update(healthy, lag);
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Health check of replica {} failed", replica.getName(), e);
+                replica.update(false, null);
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Replica {} is now {} (lag {} s)", replica.getName(), replica.isHealthy() ? "in service" : "out of service", replica.getLagSeconds());
+            }
+        }
+    }
+
+    public Optional<ReplicaPool> nextHealthy() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaPool replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return Optional.of(replica);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<ReplicaPool> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private Double lagSeconds(Connection connection) throws SQLException {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return null;
+        }
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return null;
+            }
+            double lag = rs.getDouble(1);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.sql.DataSource;
+
+/**
+ * A replica connection pool with the result of its last health check.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ReplicaPool {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy;
+    private volatile Double lagSeconds;
+
+    void update(boolean healthy, Double lagSeconds) {
+        this.healthy = healthy;
+        this.lagSeconds = lagSeconds;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool plus one pool per replica
+ * when {@code shareit.datasource.routing.enabled=true}. Pools report {@code hikaricp.*} metrics tagged by pool name.
+ */
+@Configuration
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+@ConditionalOnProperty(name = "shareit.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaHealthMonitor replicaHealthMonitor(RoutingDataSourceProperties properties) {
+        List<ReplicaPool> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername());
+            pool.setPassword(replica.getPassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            replicas.add(new ReplicaPool(pool.getPoolName(), pool));
+        }
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, properties.getMaxLag(), properties.getLagQuery());
+        monitor.start(properties.getCheckInterval());
+        return monitor;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReadReplicaRoutingDataSource.PRIMARY);
+        return primary;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(HikariDataSource primaryDataSource, ReplicaHealthMonitor replicaHealthMonitor) {
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaHealthMonitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaHealthMonitor replicaHealthMonitor) {
+        return () -> {
+            Map<String, Object> details = new LinkedHashMap<>();
+            boolean anyHealthy = false;
+            for (ReplicaPool replica : replicaHealthMonitor.getReplicas()) {
+                anyHealthy |= replica.isHealthy();
+                details.put(replica.getName(), Map.of(
+                        "healthy", replica.isHealthy(),
+                        "lagSeconds", replica.getLagSeconds() == null ? "unknown" : replica.getLagSeconds()));
+            }
+            details.put("readsFallBackToPrimary", !anyHealthy);
+            return Health.up().withDetails(details).build();
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for {@code shareit.datasource.routing.enabled=true}; the primary is {@code spring.datasource}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datasource.routing")
+public class RoutingDataSourceProperties {
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+    /**
+     * Replicas lagging further behind the primary stop receiving reads until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(10);
+    private Duration checkInterval = Duration.ofSeconds(5);
+    /**
+     * Returns the replica lag in seconds, or null when unknown; blank disables the lag check.
+     * The last replayed commit only dates the lag while WAL is still outstanding: a replica that has replayed
+     * everything it received is current however long the primary has been idle.
+     */
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
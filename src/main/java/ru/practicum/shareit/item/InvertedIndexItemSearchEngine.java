@@ -0,0 +1,341 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index over the upper-cased name and description of available items.
+ * Each trigram maps to the ids of its items, kept sorted in blocks of primitive {@code long}s that searches read
+ * without locking. A query is answered by walking the shortest posting list in id order, probing the others
+ * by binary search and confirming each candidate with a substring check, so results match the LIKE query.
+ * Queries shorter than a trigram have no postings to narrow them and go to that LIKE query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "inverted", matchIfMissing = true)
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long lastId = 0;
+        List<Item> batch;
+        do {
+            batch = itemRepository.findAvailableAfter(lastId, PageRequest.ofSize(SEED_BATCH_SIZE));
+            for (Item item : batch) {
+                index(item);
+                lastId = item.getId();
+            }
+        } while (batch.size() == SEED_BATCH_SIZE);
+        log.info("Item search index seeded with {} items", documents.size());
+    }
+
+    /**
+     * Candidates are confirmed against the items loaded for them; those that no longer match are left out
+     * and the page is filled from the candidates that follow. The index is never repaired from here:
+     * this read may come from a lagging replica, so only committed writes, through {@link #index} and
+     * {@link #remove}, change it.
+     */
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = fold(text);
+        if (query.length() < GRAM_LENGTH) {
+            return itemRepository.searchItems(text, pageable);
+        }
+        int limit = pageable.getPageSize();
+        List<Item> items = new ArrayList<>(limit);
+        long offset = pageable.getOffset();
+        long after = Long.MIN_VALUE;
+        while (items.size() < limit) {
+            List<Long> ids = findIds(query, after, offset, limit - items.size());
+            if (ids.isEmpty()) {
+                break;
+            }
+            offset = 0;
+            after = ids.get(ids.size() - 1);
+            Map<Long, Item> itemsById = itemRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : ids) {
+                Item item = itemsById.get(id);
+                if (item != null && Boolean.TRUE.equals(item.getAvailable()) && Document.of(item).contains(query)) {
+                    items.add(item);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Only the trigrams the item gains or loses are touched, each in O(log n) plus one block copy.
+     * Updates of one item are serialized by its entry in {@code documents}; other items are indexed in parallel.
+     */
+    @Override
+    public void index(Item item) {
+        Long id = item.getId();
+        Document document = Boolean.TRUE.equals(item.getAvailable()) ? Document.of(item) : null;
+        documents.compute(id, (key, previous) -> {
+            Set<String> before = previous == null ? Collections.emptySet() : previous.grams();
+            Set<String> after = document == null ? Collections.emptySet() : document.grams();
+            for (String gram : before) {
+                if (!after.contains(gram)) {
+                    postings.get(gram).remove(id);
+                }
+            }
+            for (String gram : after) {
+                if (!before.contains(gram)) {
+                    postings.computeIfAbsent(gram, ignored -> new PostingList()).add(id);
+                }
+            }
+            return document;
+        });
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        documents.computeIfPresent(itemId, (key, previous) -> {
+            previous.grams().forEach(gram -> postings.get(gram).remove(itemId));
+            return null;
+        });
+    }
+
+    /**
+     * Ids above {@code after} matching every trigram of the query, skipping the first {@code offset} of them.
+     */
+    private List<Long> findIds(String query, long after, long offset, int limit) {
+        List<PostingList> filters = new ArrayList<>();
+        for (String gram : grams(query)) {
+            PostingList ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            filters.add(ids);
+        }
+        filters.sort(Comparator.comparingInt(PostingList::size));
+        PostingList candidates = filters.remove(0);
+        List<Long> ids = new ArrayList<>(limit);
+        long skipped = 0;
+        long last = after;
+        for (Block block : candidates.blocksFrom(after)) {
+            int length = block.length;
+            for (int i = 0; i < length; i++) {
+                long id = block.ids[i];
+                // a block being split or re-keyed can briefly be seen twice
+                if (id <= last) {
+                    continue;
+                }
+                last = id;
+                if (!matches(id, query, filters)) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                ids.add(id);
+                if (ids.size() == limit) {
+                    return ids;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private boolean matches(long id, String query, List<PostingList> filters) {
+        for (PostingList filter : filters) {
+            if (!filter.contains(id)) {
+                return false;
+            }
+        }
+        Document document = documents.get(id);
+        return document != null && document.contains(query);
+    }
+
+    private static String fold(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static final class Document {
+        private final String name;
+        private final String description;
+
+        private Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        static Document of(Item item) {
+            return new Document(fold(item.getName()), fold(item.getDescription()));
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = InvertedIndexItemSearchEngine.grams(name);
+            grams.addAll(InvertedIndexItemSearchEngine.grams(description));
+            return grams;
+        }
+    }
+
+    /**
+     * Sorted ids split into blocks of at most {@link #BLOCK_SIZE}, keyed by their first id. Ids above all others,
+     * as new items get, are appended in place and published through the block's volatile length; any other change
+     * replaces one block copy-on-write, so a change costs O(log n + BLOCK_SIZE) and readers never wait.
+     * A block is put under its new key before the old key goes, so readers may see an id twice but never miss one.
+     * Lists are kept once empty, so a writer never adds to a list that has just been dropped.
+     */
+    private static final class PostingList {
+        private static final int BLOCK_SIZE = 128;
+
+        private final ConcurrentSkipListMap<Long, Block> blocks = new ConcurrentSkipListMap<>();
+        private volatile int size;
+
+        int size() {
+            return size;
+        }
+
+        Collection<Block> blocksFrom(long id) {
+            Long from = blocks.floorKey(id);
+            return from == null ? blocks.values() : blocks.tailMap(from, true).values();
+        }
+
+        boolean contains(long id) {
+            Map.Entry<Long, Block> entry = blocks.floorEntry(id);
+            return entry != null && entry.getValue().indexOf(id) >= 0;
+        }
+
+        synchronized void add(long id) {
+            Map.Entry<Long, Block> entry = blocks.floorEntry(id);
+            if (entry == null) {
+                Map.Entry<Long, Block> first = blocks.firstEntry();
+                if (first == null || first.getValue().length == BLOCK_SIZE) {
+                    blocks.put(id, new Block(new long[]{id}));
+                } else {
+                    blocks.put(id, first.getValue().with(0, id));
+                    blocks.remove(first.getKey());
+                }
+                size++;
+                return;
+            }
+            Block block = entry.getValue();
+            int index = block.indexOf(id);
+            if (index >= 0) {
+                return;
+            }
+            int insertion = -index - 1;
+            if (insertion == block.length && block.length < block.ids.length) {
+                block.ids[insertion] = id;
+                block.length = insertion + 1;
+            } else if (insertion == block.length && block.length == BLOCK_SIZE) {
+                blocks.put(id, new Block(new long[]{id}));
+            } else if (block.length < BLOCK_SIZE) {
+                blocks.put(entry.getKey(), block.with(insertion, id));
+            } else {
+                Block full = block.with(insertion, id);
+                int half = full.length / 2;
+                blocks.put(full.ids[half], full.range(half, full.length));
+                blocks.put(entry.getKey(), full.range(0, half));
+            }
+            size++;
+        }
+
+        synchronized void remove(long id) {
+            Map.Entry<Long, Block> entry = blocks.floorEntry(id);
+            if (entry == null) {
+                return;
+            }
+            Block block = entry.getValue();
+            int index = block.indexOf(id);
+            if (index < 0) {
+                return;
+            }
+            if (block.length == 1) {
+                blocks.remove(entry.getKey());
+            } else {
+                Block rest = block.without(index);
+                blocks.put(rest.ids[0], rest);
+                if (index == 0) {
+                    blocks.remove(entry.getKey());
+                }
+            }
+            size--;
+        }
+    }
+
+    /**
+     * Ids {@code [0, length)} are sorted and never change once published; only the spare capacity after them is written.
+     */
+    private static final class Block {
+        private final long[] ids;
+        private volatile int length;
+
+        private Block(long[] ids) {
+            this(ids, ids.length);
+        }
+
+        private Block(long[] ids, int length) {
+            this.ids = ids;
+            this.length = length;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, length, id);
+        }
+
+        Block with(int index, long id) {
+            int size = length;
+            long[] copy = new long[Math.max(size + 1, Math.min(PostingList.BLOCK_SIZE, (size + 1) * 2))];
+            System.arraycopy(ids, 0, copy, 0, index);
+            copy[index] = id;
+            System.arraycopy(ids, index, copy, index + 1, size - index);
+            return new Block(copy, size + 1);
+        }
+
+        Block without(int index) {
+            int size = length;
+            long[] copy = new long[size - 1];
+            System.arraycopy(ids, 0, copy, 0, index);
+            System.arraycopy(ids, index + 1, copy, index, size - index - 1);
+            return new Block(copy);
+        }
+
+        Block range(int from, int to) {
+            return new Block(Arrays.copyOfRange(ids, from, to));
+        }
+    }
+}
@@ -2,9 +2,11 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -47,6 +49,14 @@ public class ItemController {
         return itemService.searchItems(userId, text, from, size);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received request to GET /items/{}/availability?from={}&to={} with RequestHeader X-Sharer-User-Id = {}", itemId, from, to, userId);
+        return itemService.getItemAvailability(userId, itemId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@Valid @RequestBody CommentDto commentDto, @RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
         log.info("Received request to Post /items/{}/comment with RequestHeader X-Sharer-User-Id = {} and body: {}", itemId, userId, commentDto);
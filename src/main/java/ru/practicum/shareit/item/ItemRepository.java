@@ -3,9 +3,14 @@ package ru.practicum.shareit.item;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     @Query("select i from Item i "
@@ -14,5 +19,19 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             + " and i.available = true")
     List<Item> searchItems(String text, Pageable pageable);
 
+    @Query("select i from Item as i where i.available = true and i.id > ?1 order by i.id")
+    List<Item> findAvailableAfter(Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select i from Item as i where i.owner.id = ?1")
     List<Item> findByOwnerId(Long userId, Pageable pageable);
+
+    @Query("select i.id from Item as i where i.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long userId);
+
+    @Query("select i from Item as i join fetch i.owner where i.id in ?1")
+    List<Item> findWithOwnerByIdIn(Collection<Long> ids);
+
+    @Query("select i from Item as i join fetch i.owner where i.request.id in ?1 order by i.id")
+    List<Item> findWithOwnerByRequestIdIn(Collection<Long> requestIds);
 }
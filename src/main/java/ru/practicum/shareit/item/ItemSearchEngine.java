@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Full-text lookup of available items by a substring of their name or description.
+ * Implementations are selected with the {@code shareit.search.engine} property.
+ */
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, Pageable pageable);
+
+    /**
+     * Called once the transaction that saved an item has committed, so the engine can pick up its current name,
+     * description and availability without ever indexing a state that was rolled back.
+     */
+    void index(Item item);
+
+    /**
+     * Called once the transaction that deleted an item has committed.
+     */
+    void remove(Long itemId);
+}
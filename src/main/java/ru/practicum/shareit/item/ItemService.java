@@ -1,36 +1,54 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingAvailabilityIndex;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingWithoutObjDto;
 import ru.practicum.shareit.exception.BadDataException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.metrics.MetricsConfig;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+import ru.practicum.shareit.transaction.RetryOnConflict;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceGuard userExistenceGuard;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
 
+    @Transactional
     public ItemDto addItem(ItemDto itemDto, Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
         Long itemRequestId = itemDto.getRequestId();
@@ -39,11 +57,15 @@ public class ItemService {
             ItemRequest itemRequest = itemRequestRepository.findById(itemRequestId).orElseThrow(() -> new NotFoundException("Item request ID " + itemRequestId + " not found"));
             item.setRequest(itemRequest);
         }
-        return ItemMapper.itemToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        AfterCommit.run(() -> itemSearchEngine.index(savedItem));
+        return ItemMapper.itemToItemDto(savedItem);
     }
 
+    @Transactional
+    @RetryOnConflict
     public ItemDto updateItem(ItemDto itemDto, Long userId, Long itemId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item with ID " + itemId + " not found"));
         if (!item.getOwner().getId().equals(userId)) {
             log.warn("The user id {} does not have rights to edit items", userId);
@@ -58,11 +80,13 @@ public class ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return ItemMapper.itemToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        AfterCommit.run(() -> itemSearchEngine.index(savedItem));
+        return ItemMapper.itemToItemDto(savedItem);
     }
 
     public ItemDto getItem(Long userId, Long itemId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item with ID " + itemId + " not found"));
         BookingWithoutObjDto lastBookingWithoutObjDto = null;
         BookingWithoutObjDto nextBookingWithoutObjDto = null;
@@ -79,33 +103,64 @@ public class ItemService {
     }
 
     public List<ItemDto> getItems(Long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         Pageable page = convertToPageSettings(from, size, "id");
         List<Item> items = itemRepository.findByOwnerId(userId, page);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<Comment>> commentsByItemId = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, Booking> lastBookingByItemId = new HashMap<>();
+        Map<Long, Booking> nextBookingByItemId = new HashMap<>();
+        for (Booking booking : bookingRepository.getItemsLastAndNextBookings(itemIds, now)) {
+            if (booking.getStart().isBefore(now)) {
+                lastBookingByItemId.put(booking.getItem().getId(), booking);
+            } else {
+                nextBookingByItemId.put(booking.getItem().getId(), booking);
+            }
+        }
         List<ItemDto> itemWithBookingAndCommentDto = new ArrayList<>();
         for (Item item : items) {
             Long id = item.getId();
-            List<CommentDto> commentsDto = CommentMapper.listCommentToListCommentDto(commentRepository.findByItemId(id));
-            BookingWithoutObjDto lastBookingWithoutObjDto = BookingMapper.bookingToBookingWithoutObjDto(bookingRepository.getItemLastBooking(id, LocalDateTime.now()).orElse(null));
-            BookingWithoutObjDto nextBookingWithoutObjDto = BookingMapper.bookingToBookingWithoutObjDto(bookingRepository.getItemNextBooking(id, LocalDateTime.now()).orElse(null));
             ItemDto itemDto = ItemMapper.itemToItemDto(item);
-            itemDto.setLastBooking(lastBookingWithoutObjDto);
-            itemDto.setNextBooking(nextBookingWithoutObjDto);
-            itemDto.setComments(commentsDto);
+            itemDto.setLastBooking(BookingMapper.bookingToBookingWithoutObjDto(lastBookingByItemId.get(id)));
+            itemDto.setNextBooking(BookingMapper.bookingToBookingWithoutObjDto(nextBookingByItemId.get(id)));
+            itemDto.setComments(CommentMapper.listCommentToListCommentDto(commentsByItemId.getOrDefault(id, Collections.emptyList())));
             itemWithBookingAndCommentDto.add(itemDto);
         }
         return itemWithBookingAndCommentDto;
     }
 
     public List<ItemDto> searchItems(Long userId, String text, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         if (text.isBlank()) {
             return Collections.emptyList();
         }
         Pageable page = convertToPageSettings(from, size, "id");
-        return ItemMapper.listItemToListItemDto(itemRepository.searchItems(text, page));
+        return ItemMapper.listItemToListItemDto(itemSearchEngine.search(text, page));
+    }
+
+    public ItemAvailabilityDto getItemAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        userExistenceGuard.requireExists(userId);
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item with ID " + itemId + " not found"));
+        if (!to.isAfter(from)) {
+            log.warn("The start date must be earlier than the end date");
+            throw new BadDataException("The start date must be earlier than the end date");
+        }
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .free(available && bookingAvailabilityIndex.isFree(itemId, from, to))
+                .nextFreeSlot(available ? bookingAvailabilityIndex.nextFreeSlot(itemId, from, Duration.between(from, to)) : null)
+                .build();
     }
 
+    @Transactional
     public CommentDto addComment(CommentDto commentDto, Long userId, Long itemId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item with ID " + itemId + " not found"));
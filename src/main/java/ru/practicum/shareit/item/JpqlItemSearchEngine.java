@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fallback engine that runs the LIKE query from {@link ItemRepository#searchItems} on every call.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "jpql")
+public class JpqlItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.searchItems(text, pageable);
+    }
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public void remove(Long itemId) {
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.metrics;
+
+/**
+ * Repository arguments that select one of several query shapes, such as the booking state filter.
+ * The value becomes the {@code variant} tag of the repository timer and row summary.
+ */
+public interface MetricVariant {
+    String metricVariant();
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_TIMER = "shareit.service";
+    public static final String REPOSITORY_TIMER = "shareit.repository";
+    public static final String REPOSITORY_ROWS = "shareit.repository.rows";
+    public static final String BOOKING_LOCK_WAIT = "shareit.booking.lock.wait";
+    public static final String SSE_SUBSCRIBERS = "shareit.sse.subscribers";
+    public static final String SSE_DROPPED = "shareit.sse.dropped";
+
+    /**
+     * Times every public method of classes annotated with {@code @Timed(SERVICE_TIMER)},
+     * tagged with class, method and exception.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
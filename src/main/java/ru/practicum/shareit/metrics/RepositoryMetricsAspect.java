@@ -0,0 +1,121 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Times every Spring Data repository call and records how many rows it returned,
+ * tagged with the repository interface, method and the {@link MetricVariant} of its arguments.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    /**
+     * A {@link Stream} result is only a cursor: it is measured when closed, so the timer covers the whole scan
+     * and the rows recorded are those read from it.
+     */
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getTarget().getClass(), this::repositoryName);
+        String method = joinPoint.getSignature().getName();
+        String variant = variant(joinPoint.getArgs());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, repository, method, variant, e.getClass().getSimpleName());
+            throw e;
+        }
+        if (result instanceof Stream) {
+            AtomicLong rows = new AtomicLong();
+            return ((Stream<?>) result)
+                    .peek(row -> rows.incrementAndGet())
+                    .onClose(() -> {
+                        recordRows(repository, method, variant, rows.get());
+                        stop(sample, repository, method, variant, "none");
+                    });
+        }
+        Long rows = countRows(result);
+        if (rows != null) {
+            recordRows(repository, method, variant, rows);
+        }
+        stop(sample, repository, method, variant, "none");
+        return result;
+    }
+
+    private void recordRows(String repository, String method, String variant, long rows) {
+        DistributionSummary.builder(MetricsConfig.REPOSITORY_ROWS)
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("variant", variant)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    private void stop(Timer.Sample sample, String repository, String method, String variant, String exception) {
+        sample.stop(Timer.builder(MetricsConfig.REPOSITORY_TIMER)
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("variant", variant)
+                .tag("exception", exception)
+                .register(meterRegistry));
+    }
+
+    private String variant(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MetricVariant) {
+                return ((MetricVariant) arg).metricVariant();
+            }
+        }
+        return "none";
+    }
+
+    private String repositoryName(Class<?> targetClass) {
+        Class<?>[] interfaces = targetClass.getInterfaces();
+        for (Class<?> candidate : interfaces) {
+            if (candidate.getName().startsWith("ru.practicum.shareit.")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return AopProxyUtils.ultimateTargetClass(targetClass).getSimpleName();
+    }
+
+    /**
+     * Rows returned by a repository method; null for results that are not rows (counts, exists checks, void).
+     */
+    private Long countRows(Object result) {
+        if (result instanceof Collection) {
+            return (long) ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return (long) ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1L : 0L;
+        }
+        if (result == null || result instanceof Number || result instanceof Boolean) {
+            return null;
+        }
+        return 1L;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.BadDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort value and id of the last row a client has seen.
+ * Pages fetched after a cursor continue strictly below that (position, id) pair.
+ * Lists ordered by id alone use the id-only form, {@link #encode(Long)} and {@link #decodeId(String)}.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+    private final Long id;
+
+    public static String encode(LocalDateTime position, Long id) {
+        return toBase64(position + SEPARATOR + id);
+    }
+
+    public static String encode(Long id) {
+        return toBase64(String.valueOf(id));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = fromBase64(cursor);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadDataException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static Long decodeId(String cursor) {
+        try {
+            return Long.parseLong(fromBase64(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new BadDataException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String toBase64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fromBase64(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
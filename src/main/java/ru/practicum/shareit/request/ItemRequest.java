@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.user.User;
 
@@ -17,12 +19,15 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity
 @Table(name = "requests")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "requests")
 @Getter
 @Setter
 @ToString
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
 
     private String description;
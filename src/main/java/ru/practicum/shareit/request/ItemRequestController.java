@@ -2,7 +2,11 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -29,6 +33,12 @@ public class ItemRequestController {
         return itemRequestService.getItemRequests(userId);
     }
 
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.info("Received request to GET /requests/stream with RequestHeader X-Sharer-User-Id = {} and Last-Event-ID = {}", userId, lastEventId);
+        return itemRequestService.streamItemRequests(userId, lastEventId);
+    }
+
     @GetMapping("/{requestId}")
     public ItemRequestDto getItemRequest(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId) {
         log.info("Received request to GET /requests/{} with RequestHeader X-Sharer-User-Id = {}", requestId, userId);
@@ -36,8 +46,21 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getItemPageableRequests(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Received request to GET /requests/all?from={}&size={} with RequestHeader X-Sharer-User-Id = {}", from, size, userId);
-        return itemRequestService.getItemPageableRequests(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getItemPageableRequests(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String after) {
+        log.info("Received request to GET /requests/all?from={}&size={}&after={} with RequestHeader X-Sharer-User-Id = {}", from, size, after, userId);
+        if (after != null) {
+            return withNextCursor(itemRequestService.getItemPageableRequestsAfter(userId, after, size), size);
+        }
+        return withNextCursor(itemRequestService.getItemPageableRequests(userId, from, size), size);
+    }
+
+    private ResponseEntity<List<ItemRequestDto>> withNextCursor(List<ItemRequestDto> requests, Integer size) {
+        if (requests.isEmpty() || requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        ItemRequestDto last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(last.getCreated(), last.getId()))
+                .body(requests);
     }
 }
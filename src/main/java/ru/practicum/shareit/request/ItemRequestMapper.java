@@ -1,10 +1,13 @@
 package ru.practicum.shareit.request;
 
+import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.User;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ItemRequestMapper {
@@ -12,7 +15,14 @@ public class ItemRequestMapper {
         if (itemRequest == null) {
             return null;
         }
-        List<ItemDto> items = itemRequest.getItems() == null ? null : itemRequest.getItems().stream()
+        return itemRequestToItemRequestDto(itemRequest, itemRequest.getItems());
+    }
+
+    public static ItemRequestDto itemRequestToItemRequestDto(ItemRequest itemRequest, List<Item> requestItems) {
+        if (itemRequest == null) {
+            return null;
+        }
+        List<ItemDto> items = requestItems == null ? null : requestItems.stream()
                 .map(ItemMapper::itemToItemDto)
                 .collect(Collectors.toList());
         return ItemRequestDto.builder()
@@ -41,4 +51,10 @@ public class ItemRequestMapper {
                 .map(ItemRequestMapper::itemRequestToItemRequestDto)
                 .collect(Collectors.toList());
     }
+
+    public static List<ItemRequestDto> listItemRequestToListItemRequestDto(List<ItemRequest> itemRequests, Map<Long, List<Item>> itemsByRequestId) {
+        return itemRequests.stream()
+                .map(itemRequest -> itemRequestToItemRequestDto(itemRequest, itemsByRequestId.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
 }
@@ -2,11 +2,31 @@ package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select r from ItemRequest as r where r.requestor.id = ?1 order by r.id desc")
     List<ItemRequest> findByRequestorIdOrderByIdDesc(Long userId);
 
-    List<ItemRequest> findByIdNot(Long userId, Pageable pageable);
+    /**
+     * Requests of everyone but the given user; the page carries the created, id newest-first order.
+     */
+    @Query("select r from ItemRequest as r where r.requestor.id <> ?1")
+    List<ItemRequest> findFeed(Long userId, Pageable pageable);
+
+    /**
+     * The feed continued strictly below the (created, id) position of a cursor. The redundant
+     * {@code created <= ?2} gives the planner a range on the index instead of an OR.
+     */
+    @Query("select r from ItemRequest as r where r.requestor.id <> ?1"
+            + " and r.created <= ?2 and (r.created < ?2 or r.id < ?3)")
+    List<ItemRequest> findFeedAfter(Long userId, LocalDateTime created, Long id, Pageable pageable);
 }
@@ -1,50 +1,97 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestStream itemRequestStream;
     private final UserRepository userRepository;
+    private final UserExistenceGuard userExistenceGuard;
 
+    @Transactional
     public ItemRequestDto addItemRequest(ItemRequestDto itemRequestDto, Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
-        itemRequestDto.setCreated(LocalDateTime.now());
-        return ItemRequestMapper.itemRequestToItemRequestDto(itemRequestRepository.save(ItemRequestMapper.itemRequestDtoToItemRequest(itemRequestDto, user)));
+        // the column keeps microseconds; truncating here keeps the returned value equal to the stored one, which feed cursors rely on
+        itemRequestDto.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        ItemRequestDto savedItemRequestDto = ItemRequestMapper.itemRequestToItemRequestDto(itemRequestRepository.save(ItemRequestMapper.itemRequestDtoToItemRequest(itemRequestDto, user)));
+        itemRequestStream.publish(savedItemRequestDto);
+        return savedItemRequestDto;
+    }
+
+    public SseEmitter streamItemRequests(Long userId, String lastEventId) {
+        userExistenceGuard.requireExists(userId);
+        return itemRequestStream.subscribe(userId, lastEventId);
     }
 
     public List<ItemRequestDto> getItemRequests(Long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
-        return ItemRequestMapper.listItemRequestToListItemRequestDto(itemRequestRepository.findByRequestorIdOrderByIdDesc(userId));
+        userExistenceGuard.requireExists(userId);
+        return withItems(itemRequestRepository.findByRequestorIdOrderByIdDesc(userId));
     }
 
     public ItemRequestDto getItemRequest(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
+        userExistenceGuard.requireExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> new NotFoundException("Request with ID " + requestId + " not found"));
-        return ItemRequestMapper.itemRequestToItemRequestDto(itemRequest);
+        return withItems(List.of(itemRequest)).get(0);
     }
 
     public List<ItemRequestDto> getItemPageableRequests(Long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User with ID " + userId + " not found"));
-        Pageable pageableRequest = convertToPageSettings(from, size, "id");
-        return ItemRequestMapper.listItemRequestToListItemRequestDto(itemRequestRepository.findByIdNot(userId, pageableRequest));
+        userExistenceGuard.requireExists(userId);
+        Pageable pageableRequest = convertToPageSettings(from, size, "created");
+        return withItems(itemRequestRepository.findFeed(userId, pageableRequest));
+    }
+
+    public List<ItemRequestDto> getItemPageableRequestsAfter(Long userId, String after, Integer size) {
+        userExistenceGuard.requireExists(userId);
+        PageCursor cursor = PageCursor.decode(after);
+        Pageable pageableRequest = convertToPageSettings(0, size, "created");
+        return withItems(itemRequestRepository.findFeedAfter(userId, cursor.getPosition(), cursor.getId(), pageableRequest));
+    }
+
+    /**
+     * Loads the items answering all given requests, owners included, with one query and attaches them in memory
+     * instead of walking each lazy {@link ItemRequest#getItems()} collection.
+     */
+    private List<ItemRequestDto> withItems(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequestId = itemRepository.findWithOwnerByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return ItemRequestMapper.listItemRequestToListItemRequestDto(itemRequests, itemsByRequestId);
     }
 
     public Pageable convertToPageSettings(Integer from, Integer size, String sortingByField) {
         int page = from >= 0 ? Math.round((float) from / size) : -1;
-        return PageRequest.of(page, size, Sort.by(sortingByField).descending());
+        return PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, sortingByField, "id"));
     }
 }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.sse.SseBroadcaster;
+import ru.practicum.shareit.sse.SseProperties;
+import ru.practicum.shareit.sse.SseSenderPool;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+/**
+ * Pushes newly created requests to {@code GET /requests/stream} subscribers, replacing polling of {@code /requests/all}.
+ * Like the feed, a subscriber never receives its own requests.
+ */
+@Component
+public class ItemRequestStream {
+    private final SseBroadcaster<ItemRequestDto> broadcaster;
+
+    public ItemRequestStream(SseProperties properties, SseSenderPool sseSenderPool, MeterRegistry meterRegistry) {
+        this.broadcaster = new SseBroadcaster<>("request", properties, sseSenderPool, meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return broadcaster.subscribe(lastEventId, request -> !userId.equals(request.getRequestorId()));
+    }
+
+    public void publish(ItemRequestDto itemRequest) {
+        AfterCommit.run(() -> broadcaster.publish(itemRequest));
+    }
+}
@@ -0,0 +1,259 @@
+package ru.practicum.shareit.sse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.metrics.MetricsConfig;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Fans events of one stream out to its Server-Sent Events subscribers.
+ * Every subscriber has a bounded buffer drained on the sender executor; a client that cannot keep up
+ * loses its oldest pending events rather than slowing down the publisher or the other clients.
+ * The last {@code historySize} events are kept, so a reconnecting client sending {@code Last-Event-ID}
+ * receives what it missed. Event ids are local to this node and restart with it.
+ * Each connection starts with the {@code retry} hint, and idle connections get a heartbeat comment.
+ * A write still blocked after {@code writeTimeout} drops its subscriber, see {@link SseSenderPool}.
+ */
+@Slf4j
+public class SseBroadcaster<T> {
+    private final String stream;
+    private final int bufferSize;
+    private final int historySize;
+    private final long timeoutMillis;
+    private final long reconnectDelayMillis;
+    private final long writeTimeoutMillis;
+    private final SseSenderPool senders;
+    private final Counter dropped;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<Event<T>> history = new ArrayDeque<>();
+    private long lastEventId;
+
+    /**
+     * Writes on {@code senders}. Unless {@code shareit.sse.heartbeat} is zero, heartbeats are sent that often
+     * from the pool's scheduler; a heartbeat also writes the queued events.
+     */
+    public SseBroadcaster(String stream, SseProperties properties, SseSenderPool senders, MeterRegistry meterRegistry) {
+        this.stream = stream;
+        this.bufferSize = properties.getBufferSize();
+        this.historySize = properties.getHistorySize();
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        this.reconnectDelayMillis = properties.getReconnectDelay().toMillis();
+        this.writeTimeoutMillis = properties.getWriteTimeout().toMillis();
+        this.senders = senders;
+        Gauge.builder(MetricsConfig.SSE_SUBSCRIBERS, subscribers, Set::size)
+                .tag("stream", stream)
+                .register(meterRegistry);
+        this.dropped = Counter.builder(MetricsConfig.SSE_DROPPED)
+                .tag("stream", stream)
+                .register(meterRegistry);
+        long heartbeatMillis = properties.getHeartbeat().toMillis();
+        if (heartbeatMillis > 0) {
+            senders.scheduler().scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Opens a subscription receiving the events accepted by {@code filter}. With a {@code lastEventId}
+     * the retained events after it are replayed first; an id this node never issued (for example from
+     * before a restart) replays everything retained.
+     */
+    public SseEmitter subscribe(String lastEventId, Predicate<T> filter) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        Long resumeAfter = parseEventId(lastEventId);
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(reconnectDelayMillis).comment("connected"));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        synchronized (history) {
+            if (resumeAfter != null) {
+                long after = resumeAfter > this.lastEventId ? Long.MIN_VALUE : resumeAfter;
+                history.stream()
+                        .filter(event -> event.id > after)
+                        .forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    public void publish(T payload) {
+        synchronized (history) {
+            Event<T> event = new Event<>(++lastEventId, payload);
+            history.addLast(event);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    /**
+     * Writes a comment line to every subscriber with nothing pending. A failed write drops the subscriber.
+     */
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Event<T> {
+        private final long id;
+        private final T payload;
+
+        private Event(long id, T payload) {
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Predicate<T> filter;
+        private final Deque<Event<T>> buffer = new ArrayDeque<>();
+        private boolean draining;
+
+        private Subscriber(SseEmitter emitter, Predicate<T> filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        private synchronized void offer(Event<T> event) {
+            if (!filter.test(event.payload)) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                buffer.removeFirst();
+                dropped.increment();
+            }
+            buffer.addLast(event);
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (draining || buffer.isEmpty()) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void heartbeat() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(() -> {
+                    if (send(SseEmitter.event().comment("heartbeat"))) {
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event<T> event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                boolean sent = send(SseEmitter.event()
+                        .id(String.valueOf(event.id))
+                        .name(stream)
+                        .data(event.payload));
+                if (!sent) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Past the deadline the subscriber is dropped and the thread counted as pinned; once the write
+         * returns, the emitter is completed so the client reconnects and resumes from its last event id.
+         */
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            AtomicBoolean settled = new AtomicBoolean();
+            ScheduledFuture<?> deadline = senders.scheduler().schedule(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    log.warn("Dropping {} subscriber: a write is blocked for more than {} ms", stream, writeTimeoutMillis);
+                    senders.pin();
+                    close();
+                }
+            }, writeTimeoutMillis, TimeUnit.MILLISECONDS);
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping {} subscriber: {}", stream, e.getMessage());
+                close();
+                return false;
+            } finally {
+                if (settled.compareAndSet(false, true)) {
+                    deadline.cancel(false);
+                } else {
+                    senders.unpin();
+                    emitter.complete();
+                }
+            }
+        }
+
+        private void close() {
+            subscribers.remove(this);
+            synchronized (this) {
+                buffer.clear();
+                draining = false;
+            }
+        }
+    }
+}
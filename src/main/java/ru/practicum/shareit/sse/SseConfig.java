@@ -0,0 +1,18 @@
+package ru.practicum.shareit.sse;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SseProperties.class)
+public class SseConfig {
+
+    /**
+     * Writes queued events and heartbeats to subscribers, so publishing never waits on a client's socket.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public SseSenderPool sseSenderPool(SseProperties properties) {
+        return new SseSenderPool(properties.getSenderThreads());
+    }
+}
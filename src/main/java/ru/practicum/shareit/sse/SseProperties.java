@@ -0,0 +1,44 @@
+package ru.practicum.shareit.sse;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits shared by every Server-Sent Events stream.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.sse")
+public class SseProperties {
+    /**
+     * Events queued per subscriber; when a slow client falls this far behind, its oldest pending events are dropped.
+     */
+    private int bufferSize = 256;
+    /**
+     * Recent events kept per stream for clients resuming with {@code Last-Event-ID}.
+     */
+    private int historySize = 1024;
+    /**
+     * Connections are closed after this long; clients reconnect and resume from their last event id.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+    /**
+     * Idle connections get a comment line this often, so proxies keep them open and dead clients are noticed.
+     */
+    private Duration heartbeat = Duration.ofSeconds(15);
+    /**
+     * Sent as the {@code retry} hint: how long a client waits before reconnecting after the connection drops.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(3);
+    /**
+     * A single write still blocked after this long drops its subscriber, and its thread is replaced while it stays blocked.
+     */
+    private Duration writeTimeout = Duration.ofSeconds(5);
+    /**
+     * Threads writing to healthy subscribers; threads pinned by blocked writes come on top of these.
+     */
+    private int senderThreads = 4;
+}
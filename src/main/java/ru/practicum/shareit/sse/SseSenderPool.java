@@ -0,0 +1,97 @@
+package ru.practicum.shareit.sse;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads writing Server-Sent Events, plus one scheduler thread for heartbeats and write deadlines.
+ * Servlet writes block, and a write to a client that stopped reading only fails once the container's socket
+ * write timeout expires; the emitter cannot be completed meanwhile, since it is locked by the write.
+ * A write past its deadline therefore {@link #pin() pins} its thread: the pool adds a replacement until the
+ * write returns, so {@code senderThreads} threads keep serving the healthy clients. Pinned threads are bounded
+ * by the clients stalling within one container write timeout, as each stalled subscriber is dropped.
+ */
+public class SseSenderPool implements Executor {
+    private final Executor senders;
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService scheduler;
+    private final int threads;
+    private int pinned;
+
+    public SseSenderPool(int threads) {
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads("sse-sender-"));
+        this.senders = pool;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("sse-scheduler-"));
+        this.threads = threads;
+    }
+
+    /**
+     * Runs writes on {@code senders} as given; pinning only counts.
+     */
+    SseSenderPool(Executor senders) {
+        this.pool = null;
+        this.senders = senders;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("sse-scheduler-"));
+        this.threads = 0;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        senders.execute(task);
+    }
+
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    synchronized void pin() {
+        pinned++;
+        resize();
+    }
+
+    synchronized void unpin() {
+        pinned--;
+        resize();
+    }
+
+    synchronized int pinned() {
+        return pinned;
+    }
+
+    public void shutdownNow() {
+        scheduler.shutdownNow();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private void resize() {
+        if (pool == null) {
+            return;
+        }
+        int size = threads + Math.max(pinned, 0);
+        if (size > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.transaction;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the whole transactional method when it loses an optimistic-lock race.
+ * Only for idempotent operations: a retry repeats every side effect of the method, so effects outside
+ * the database (indexes, caches, events) must go through {@link AfterCommit} and run for the winning attempt only.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+    int maxAttempts() default 3;
+}
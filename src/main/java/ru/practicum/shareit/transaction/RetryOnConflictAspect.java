@@ -0,0 +1,52 @@
+package ru.practicum.shareit.transaction;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies {@link RetryOnConflict}. Ordered outside the transaction interceptor, so every attempt runs
+ * in a fresh transaction and reloads current state. A call that joins an outer transaction is not
+ * retried here: only the outermost transaction can start over. Attempts back off with jitter.
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().toShortString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= retryOnConflict.maxAttempts()) {
+                    log.warn("{} still conflicting after {} attempts", method, attempt);
+                    throw e;
+                }
+                meterRegistry.counter("shareit.transaction.retries", "method", joinPoint.getSignature().getName()).increment();
+                log.info("{} lost an optimistic lock race, attempt {} of {}", method, attempt + 1, retryOnConflict.maxAttempts());
+                Thread.sleep(ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS * attempt, BACKOFF_MILLIS * attempt * 2));
+            }
+        }
+    }
+}
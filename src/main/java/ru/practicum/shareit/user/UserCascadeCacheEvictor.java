@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchEngine;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Items, requests and bookings of a deleted user are removed by ON DELETE CASCADE in the database.
+ * Hibernate never sees those deletes, so the cached copies and cached query results are dropped here once the delete commits,
+ * together with the user's items in the search index and the periods they held in the availability index.
+ * Must be called before the delete, while those rows can still be found.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCascadeCacheEvictor {
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final BookingRepository bookingRepository;
+    private final BookingAvailabilityIndex bookingAvailabilityIndex;
+
+    public void evictCascadedFrom(Long userId) {
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(userId);
+        Map<Long, List<Long>> bookingIdsByItemId = bookingRepository
+                .findByBookerIdAndStatusInAndEndAfter(userId, BookingStatus.HOLDING, LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(),
+                        Collectors.mapping(Booking::getId, Collectors.toList())));
+        AfterCommit.run(() -> {
+            itemIds.forEach(itemSearchEngine::remove);
+            bookingAvailabilityIndex.forget(itemIds, bookingIdsByItemId);
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(Item.class);
+            cache.evictEntityData(ItemRequest.class);
+            cache.evictQueryRegions();
+            log.debug("Evicted item, request and query caches after deleting user {}", userId);
+        });
+    }
+}
@@ -1,11 +1,21 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * TODO Sprint add-controllers.
@@ -15,7 +25,10 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping(path = "/users")
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public UserDto addUser(@Valid @RequestBody UserDto userDto) {
@@ -29,10 +42,23 @@ public class UserController {
         return userService.updateUser(userDto, userId);
     }
 
+    /**
+     * Without {@code from}, {@code size} or {@code after} the whole list is streamed straight from the database cursor;
+     * with any of them one page is returned, plus the cursor to continue {@code after} when the page is full.
+     */
     @GetMapping
-    public List<UserDto> getUsers() {
-        log.info("Received request to GET /users");
-        return userService.getUsers();
+    public ResponseEntity<StreamingResponseBody> getUsers(@RequestParam(required = false) Integer from, @RequestParam(required = false) Integer size, @RequestParam(required = false) String after) {
+        log.info("Received request to GET /users?from={}&size={}&after={}", from, size, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (from == null && size == null && after == null) {
+            return response.body(out -> writeUsers(out, userService::streamUsers));
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        List<UserDto> users = after != null ? userService.getUsersAfter(after, pageSize) : userService.getUsers(from == null ? 0 : from, pageSize);
+        if (!users.isEmpty() && users.size() == pageSize) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(users.get(users.size() - 1).getId()));
+        }
+        return response.body(out -> writeUsers(out, users::forEach));
     }
 
     @GetMapping("/{id}")
@@ -46,4 +72,18 @@ public class UserController {
         log.info("Received request to DELETE /users/{}", id);
         userService.deleteUser(id);
     }
+
+    private void writeUsers(OutputStream out, Consumer<Consumer<UserDto>> users) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartArray();
+        users.accept(user -> {
+            try {
+                generator.writeObject(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+        generator.flush();
+    }
 }
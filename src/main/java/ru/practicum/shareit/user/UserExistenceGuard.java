@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+
+/**
+ * Validates the X-Sharer-User-Id header without loading the user.
+ * Ids confirmed by existsById are remembered in a bounded cache, so repeated checks usually cost no query.
+ * Only positive answers are cached; created and deleted users are applied after commit,
+ * and entries expire to cover deletes made elsewhere.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserExistenceGuard {
+    private static final long MAX_KNOWN_USERS = 100_000;
+    private static final Duration KNOWN_USER_TTL = Duration.ofMinutes(10);
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> knownUsers = Caffeine.newBuilder()
+            .maximumSize(MAX_KNOWN_USERS)
+            .expireAfterWrite(KNOWN_USER_TTL)
+            .build();
+
+    public void requireExists(Long userId) {
+        if (knownUsers.getIfPresent(userId) != null) {
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            log.warn("User with ID {} not found", userId);
+            throw new NotFoundException("User with ID " + userId + " not found");
+        }
+        knownUsers.put(userId, Boolean.TRUE);
+    }
+
+    public void remember(Long userId) {
+        AfterCommit.run(() -> knownUsers.put(userId, Boolean.TRUE));
+    }
+
+    public void forget(Long userId) {
+        AfterCommit.run(() -> knownUsers.invalidate(userId));
+    }
+}
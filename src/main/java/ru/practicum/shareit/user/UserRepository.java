@@ -1,9 +1,44 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.CACHE_MODE;
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.TIMEOUT_JPA;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Rows per round trip while streaming. A stream keeps its transaction, and so a pooled connection, open
+     * until the last row is written to the client, so a slow download holds that connection throughout.
+     * The statement itself is cut off after {@link #STREAM_TIMEOUT_MS}; clients that page with {@code size}
+     * and {@code after} never hold a connection between requests.
+     */
+    String STREAM_FETCH_SIZE = "500";
+    String STREAM_TIMEOUT_MS = "60000";
+
     Optional<User> findByEmail(String email);
+
+    @Query("select u from User as u")
+    List<User> findPage(Pageable pageable);
+
+    @Query("select u from User as u where u.id > ?1 order by u.id")
+    List<User> findAfter(Long id, Pageable pageable);
+
+    /**
+     * Reads the whole table through a JDBC cursor, {@link #STREAM_FETCH_SIZE} rows per round trip.
+     * Bypasses the second-level cache so a full scan does not evict the entries that matter.
+     * Must be consumed and closed inside the transaction that opened it.
+     */
+    @QueryHints({@QueryHint(name = FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = CACHE_MODE, value = "IGNORE"),
+            @QueryHint(name = TIMEOUT_JPA, value = STREAM_TIMEOUT_MS)})
+    @Query("select u from User as u order by u.id")
+    Stream<User> streamAll();
 }
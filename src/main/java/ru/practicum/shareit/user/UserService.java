@@ -1,23 +1,42 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.metrics.MetricsConfig;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class UserService {
     private final UserRepository userRepository;
+    private final UserCascadeCacheEvictor userCascadeCacheEvictor;
+    private final UserExistenceGuard userExistenceGuard;
+    private final EntityManager entityManager;
 
+    @Transactional
     public UserDto addUser(UserDto userDto) {
-        return UserMapper.userToUserDto(userRepository.save(UserMapper.userDtoToUser(userDto)));
+        User savedUser = userRepository.save(UserMapper.userDtoToUser(userDto));
+        userExistenceGuard.remember(savedUser.getId());
+        return UserMapper.userToUserDto(savedUser);
     }
 
+    @Transactional
     public UserDto updateUser(UserDto userDto, Long id) {
         userDto.setId(id);
         User userInStorage = userRepository.findById(id).orElseThrow(() -> new NotFoundException("User with ID " + id + " not found"));
@@ -31,15 +50,41 @@ public class UserService {
         return UserMapper.userToUserDto(userRepository.save(userInStorage));
     }
 
+    @Transactional
     public void deleteUser(Long id) {
+        userCascadeCacheEvictor.evictCascadedFrom(id);
         userRepository.deleteById(id);
+        userExistenceGuard.forget(id);
     }
 
-    public List<UserDto> getUsers() {
-        return userRepository.findAll().stream().map(UserMapper::userToUserDto).collect(Collectors.toList());
+    public List<UserDto> getUsers(Integer from, Integer size) {
+        Pageable page = convertToPageSettings(from, size, "id");
+        return userRepository.findPage(page).stream().map(UserMapper::userToUserDto).collect(Collectors.toList());
+    }
+
+    public List<UserDto> getUsersAfter(String after, Integer size) {
+        return userRepository.findAfter(PageCursor.decodeId(after), PageRequest.of(0, size)).stream().map(UserMapper::userToUserDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Hands every user, in id order, to {@code consumer} while reading them from a database cursor.
+     * Each entity is detached once mapped, so memory stays flat however large the table is.
+     */
+    public void streamUsers(Consumer<UserDto> consumer) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                consumer.accept(UserMapper.userToUserDto(user));
+                entityManager.detach(user);
+            });
+        }
     }
 
     public UserDto getUserById(Long id) {
         return UserMapper.userToUserDto(userRepository.findById(id).orElseThrow(() -> new NotFoundException("User with ID " + id + " not found")));
     }
+
+    public Pageable convertToPageSettings(Integer from, Integer size, String sortingByField) {
+        int page = from >= 0 ? Math.round((float) from / size) : -1;
+        return PageRequest.of(page, size, Sort.by(sortingByField));
+    }
 }
@@ -4,8 +4,16 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 
+-- steps of 50 match allocationSize on the entities: Hibernate hands out 50 ids per nextval.
+-- Sequences are kept across re-initialisation: a running session factory may still hold a block of ids.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT DEFAULT nextval('users_seq') NOT NULL,
   name                 VARCHAR(255),
   email                VARCHAR(255),
   CONSTRAINT pk_user PRIMARY KEY (id),
@@ -13,7 +21,7 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT DEFAULT nextval('requests_seq') NOT NULL,
   description   VARCHAR(1000),
   created    TIMESTAMP WITHOUT TIME ZONE,
   requestor_id  BIGINT NOT NULL,
@@ -21,33 +29,45 @@ CREATE TABLE IF NOT EXISTS requests (
   CONSTRAINT fk_requests_to_users FOREIGN KEY(requestor_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_id ON requests (requestor_id, id DESC);
+-- the /requests/all feed walks this index newest first and skips the caller's own requests
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+
 
 CREATE TABLE IF NOT EXISTS items (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT DEFAULT nextval('items_seq') NOT NULL,
   name          VARCHAR(255),
   description   VARCHAR(1000),
   is_available  BOOLEAN NOT NULL DEFAULT TRUE,
   owner_id      BIGINT NOT NULL,
   request_id    BIGINT,
+  version       BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_item PRIMARY KEY (id),
   CONSTRAINT fk_items_to_users FOREIGN KEY(owner_id) REFERENCES users(id) ON DELETE CASCADE,
   CONSTRAINT fk_items_to_requests FOREIGN KEY(request_id) REFERENCES requests(id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
 CREATE TABLE IF NOT EXISTS bookings (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
   start_date    TIMESTAMP WITHOUT TIME ZONE,
   end_date      TIMESTAMP WITHOUT TIME ZONE,
   item_id       BIGINT NOT NULL,
   booker_id     BIGINT NOT NULL,
   status        VARCHAR(32) NOT NULL DEFAULT 'WAITING',
+  version       BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT pk_booking PRIMARY KEY (id),
   CONSTRAINT fk_bookings_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON DELETE CASCADE,
   CONSTRAINT fk_bookings_to_users FOREIGN KEY(booker_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
 CREATE TABLE IF NOT EXISTS comments (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT DEFAULT nextval('comments_seq') NOT NULL,
   text          VARCHAR(1000),
   item_id       BIGINT NOT NULL,
   author_id     BIGINT NOT NULL,
@@ -56,3 +76,5 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT fk_comments_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON DELETE CASCADE,
   CONSTRAINT fk_comments_to_users FOREIGN KEY(author_id) REFERENCES users(id) ON DELETE CASCADE
 );
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id);
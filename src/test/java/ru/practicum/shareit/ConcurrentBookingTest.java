@@ -0,0 +1,99 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingWithoutObjDto;
+import ru.practicum.shareit.exception.BadDataException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Not transactional on purpose: each booking must run in its own service transaction, as two requests would.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConcurrentBookingTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void init() {
+        owner = userService.addUser(UserDto.builder().name("Misha").email("concurrent-owner@mail.ru").build());
+        booker = userService.addUser(UserDto.builder().name("Vasia").email("concurrent-booker@mail.ru").build());
+        item = itemService.addItem(ItemDto.builder().name("Дрель").description("Простая дрель").available(true).build(), owner.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userService.deleteUser(owner.getId());
+        userService.deleteUser(booker.getId());
+    }
+
+    @Test
+    void addBooking_whenSamePeriodRequestedConcurrently_thenExactlyOneCreated() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        List<CompletableFuture<Long>> attempts = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            attempts.add(CompletableFuture.supplyAsync(() -> {
+                await(barrier);
+                return bookingService.addBooking(BookingWithoutObjDto.builder()
+                        .itemId(item.getId())
+                        .start(start)
+                        .end(end)
+                        .build(), booker.getId()).getId();
+            }));
+        }
+
+        int created = 0;
+        int rejected = 0;
+        for (CompletableFuture<Long> attempt : attempts) {
+            try {
+                attempt.get(10, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(BadDataException.class, e.getCause());
+                rejected++;
+            }
+        }
+        assertEquals(1, created);
+        assertEquals(1, rejected);
+        assertEquals(1, bookingRepository.findOverlapping(Set.of(item.getId()),
+                Set.of(BookingStatus.WAITING), start, end).size());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingBatchResultDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingWithoutObjDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sequence ids are allocated 50 at a time, so bulk saves go out as JDBC batches
+ * instead of one insert and one id round trip per row.
+ */
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class JdbcBatchingTest {
+    private static final int ROWS = 120;
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveAll_whenManyItemsAndBookings_thenStatementsPerBatchNotPerRow() {
+        User owner = userRepository.save(User.builder().name("Misha").email("batch-owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("Vasia").email("batch-booker@mail.ru").build());
+        entityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Item> items = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Item item = Item.builder().name("Дрель " + i).description("Дрель").available(true).owner(owner).build();
+            items.add(item);
+            bookings.add(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(LocalDateTime.now().plusDays(i + 1))
+                    .end(LocalDateTime.now().plusDays(i + 2))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        itemRepository.saveAll(items);
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        assertEquals(2L * ROWS, statistics.getEntityInsertCount());
+        // ceil(120 / 50) = 3 batches per table, plus at most 4 sequence calls per table
+        assertTrue(statistics.getPrepareStatementCount() <= 14,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void addBookings_whenManyEntries_thenHandfulOfStatements() {
+        User owner = userRepository.save(User.builder().name("Misha").email("bulk-owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("Vasia").email("bulk-booker@mail.ru").build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(Item.builder().name("Дрель " + i).description("Дрель").available(true).owner(owner).build());
+        }
+        itemRepository.saveAll(items);
+        List<BookingWithoutObjDto> bookings = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            bookings.add(BookingWithoutObjDto.builder()
+                    .itemId(items.get(i % items.size()).getId())
+                    .start(LocalDateTime.now().plusDays(i + 1))
+                    .end(LocalDateTime.now().plusDays(i + 2))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(bookings, booker.getId());
+        entityManager.flush();
+
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == 200));
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // booker, items with owners, sequence calls and three insert batches
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingWithoutObjDto;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With open-in-view off nothing keeps a session open while the controller serializes the response,
+ * so every endpoint below must get fully initialised DTOs from its service. Not transactional on purpose:
+ * a test transaction would keep the session open and hide lazy loading.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class OpenInViewDisabledTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final MockMvc mockMvc;
+    private final ApplicationContext context;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+    private final BookingService bookingService;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+    private ItemRequestDto request;
+    private BookingDto booking;
+
+    @BeforeEach
+    void init() {
+        owner = userService.addUser(UserDto.builder().name("Misha").email("osiv-owner@mail.ru").build());
+        booker = userService.addUser(UserDto.builder().name("Vasia").email("osiv-booker@mail.ru").build());
+        request = itemRequestService.addItemRequest(ItemRequestDto.builder().description("Нужна дрель").build(), booker.getId());
+        item = itemService.addItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .requestId(request.getId())
+                .build(), owner.getId());
+        booking = bookingService.addBooking(BookingWithoutObjDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build(), booker.getId());
+        bookingService.approvedBooking(booking.getId(), true, owner.getId());
+        itemService.addComment(CommentDto.builder().text("Отличная дрель").build(), booker.getId(), item.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userService.deleteUser(owner.getId());
+        userService.deleteUser(booker.getId());
+    }
+
+    @Test
+    void openInView_whenDisabled_thenNoInterceptorRegistered() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    @SneakyThrows
+    void getItem_whenCommentsAndBookings_thenSerialized() {
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owner.name").value("Misha"))
+                .andExpect(jsonPath("$.comments[0].authorName").value("Vasia"))
+                .andExpect(jsonPath("$.lastBooking.id").value(booking.getId()));
+
+        mockMvc.perform(get("/items").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].comments[0].authorName").value("Vasia"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getItemRequest_whenItemsAnswered_thenSerialized() {
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].owner.name").value("Misha"));
+
+        mockMvc.perform(get("/requests").header(USER_HEADER, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].items[0].name").value("Дрель"));
+    }
+
+    @Test
+    @SneakyThrows
+    void getBookings_whenInvoke_thenSerialized() {
+        mockMvc.perform(get("/bookings/{bookingId}", booking.getId()).header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.owner.name").value("Misha"))
+                .andExpect(jsonPath("$.booker.name").value("Vasia"));
+
+        mockMvc.perform(get("/bookings/owner").header(USER_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].booker.name").value("Vasia"));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingWithoutObjDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Not transactional on purpose: version checks happen when each service transaction commits.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class OptimisticLockingTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void init() {
+        owner = userService.addUser(UserDto.builder().name("Misha").email("lock-owner@mail.ru").build());
+        booker = userService.addUser(UserDto.builder().name("Vasia").email("lock-booker@mail.ru").build());
+        item = itemService.addItem(ItemDto.builder().name("Дрель").description("Простая дрель").available(true).build(), owner.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userService.deleteUser(owner.getId());
+        userService.deleteUser(booker.getId());
+    }
+
+    @Test
+    void save_whenCopyIsStale_thenConflictInsteadOfOverwrite() {
+        Item stale = itemRepository.findById(item.getId()).orElseThrow();
+        itemService.updateItem(ItemDto.builder().name("Перфоратор").build(), owner.getId(), item.getId());
+        stale.setDescription("Устаревшее описание");
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> itemRepository.save(stale));
+        Item current = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Перфоратор", current.getName());
+        assertEquals("Простая дрель", current.getDescription());
+        assertEquals(stale.getVersion() + 1, current.getVersion());
+    }
+
+    @Test
+    void approvedBooking_whenStatusChanged_thenVersionBumped() {
+        BookingDto booking = bookingService.addBooking(BookingWithoutObjDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), booker.getId());
+        long version = bookingRepository.findById(booking.getId()).orElseThrow().getVersion();
+
+        bookingService.approvedBooking(booking.getId(), true, owner.getId());
+
+        assertEquals(version + 1, bookingRepository.findById(booking.getId()).orElseThrow().getVersion());
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.BookingQuery;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.ItemRequestRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs EXPLAIN for the SQL Hibernate generates for each filtering repository method
+ * and fails when any table in the plan is read with a full scan.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {"db.name=test",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.SqlCapturingInspector"})
+class SchemaIndexTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void clear() {
+        SqlCapturingInspector.clear();
+    }
+
+    @Test
+    void bookerQueries_useIndex() {
+        for (BookingState state : BookingState.values()) {
+            bookingRepository.findByQuery(query(BookingQuery.Role.BOOKER, state, null));
+            assertUsesIndex();
+            bookingRepository.findByQuery(query(BookingQuery.Role.BOOKER, state, new PageCursor(now, 1L)));
+            assertUsesIndex();
+        }
+    }
+
+    @Test
+    void ownerQueries_useIndex() {
+        for (BookingState state : BookingState.values()) {
+            bookingRepository.findByQuery(query(BookingQuery.Role.OWNER, state, null));
+            assertUsesIndex();
+            bookingRepository.findByQuery(query(BookingQuery.Role.OWNER, state, new PageCursor(now, 1L)));
+            assertUsesIndex();
+        }
+    }
+
+    @Test
+    void itemBookingQueries_useIndex() {
+        bookingRepository.getItemLastBooking(1L, now);
+        assertUsesIndex();
+        bookingRepository.getItemNextBooking(1L, now);
+        assertUsesIndex();
+        bookingRepository.getByBookerAndItemPastApprovedBooking(1L, 1L, now);
+        assertUsesIndex();
+        bookingRepository.getItemsLastAndNextBookings(List.of(1L, 2L), now);
+        assertUsesIndex();
+        bookingRepository.existsOverlapping(1L, List.of(BookingStatus.WAITING), now, now);
+        assertUsesIndex();
+        bookingRepository.findOverlapping(List.of(1L, 2L), List.of(BookingStatus.WAITING), now, now);
+        assertUsesIndex();
+    }
+
+    @Test
+    void itemCommentAndRequestQueries_useIndex() {
+        itemRepository.findByOwnerId(1L, PageRequest.of(0, 10, Sort.by("id")));
+        assertUsesIndex();
+        commentRepository.findByItemId(1L);
+        assertUsesIndex();
+        commentRepository.findByItemIdIn(List.of(1L, 2L));
+        assertUsesIndex();
+        itemRequestRepository.findByRequestorIdOrderByIdDesc(1L);
+        assertUsesIndex();
+    }
+
+    @Test
+    void requestFeedQueries_useIndex() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created", "id"));
+        itemRequestRepository.findFeed(1L, page);
+        assertUsesIndex();
+        itemRequestRepository.findFeedAfter(1L, now, 1L, page);
+        assertUsesIndex();
+    }
+
+    private BookingQuery query(BookingQuery.Role role, BookingState state, PageCursor after) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(1L)
+                .state(state)
+                .now(now)
+                .after(after)
+                .limit(10)
+                .build();
+    }
+
+    private void assertUsesIndex() {
+        String sql = SqlCapturingInspector.lastSelect();
+        String plan = explain(sql);
+        assertFalse(plan.contains("tableScan"), "Full scan in plan:\n" + plan);
+        SqlCapturingInspector.clear();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement ps) -> {
+            int parameterCount = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                ps.setObject(i, null);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SecondLevelCacheTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserDto savedUser;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        savedUser = userService.addUser(UserDto.builder()
+                .email("cache@mail.ru")
+                .name("Misha")
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (savedUser != null) {
+            userService.deleteUser(savedUser.getId());
+        }
+    }
+
+    @Test
+    void getUserById_whenReadTwice_thenSecondReadIsCacheHit() {
+        userService.getUserById(savedUser.getId());
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        userService.getUserById(savedUser.getId());
+
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void updateUser_whenUpdated_thenCachedCopyIsReplaced() {
+        userService.updateUser(UserDto.builder().name("Vasa").build(), savedUser.getId());
+
+        assertEquals("Vasa", userService.getUserById(savedUser.getId()).getName());
+        assertTrue(cache().containsEntity(User.class, savedUser.getId()));
+    }
+
+    @Test
+    void updateItem_whenUpdated_thenCachedCopyIsReplaced() {
+        ItemDto item = itemService.addItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build(), savedUser.getId());
+        findItem(item.getId());
+
+        itemService.updateItem(ItemDto.builder().name("Перфоратор").build(), savedUser.getId(), item.getId());
+
+        assertTrue(cache().containsEntity(Item.class, item.getId()));
+        assertEquals("Перфоратор", findItem(item.getId()).getName());
+    }
+
+    @Test
+    void deleteUser_whenItemsCascadeDeleted_thenItemsEvicted() {
+        ItemDto item = itemService.addItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build(), savedUser.getId());
+        findItem(item.getId());
+        assertTrue(cache().containsEntity(Item.class, item.getId()));
+
+        userService.deleteUser(savedUser.getId());
+        savedUser = null;
+
+        assertFalse(cache().containsEntity(Item.class, item.getId()));
+    }
+
+    private Item findItem(Long itemId) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Item.class, itemId);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private org.hibernate.Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
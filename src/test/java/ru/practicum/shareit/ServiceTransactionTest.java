@@ -0,0 +1,90 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingWithoutObjDto;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every service call is one transaction, so it checks out exactly one connection
+ * however many repository calls it makes. Not transactional on purpose.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ServiceTransactionTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userService.addUser(UserDto.builder().name("Misha").email("tx-owner@mail.ru").build());
+        booker = userService.addUser(UserDto.builder().name("Vasia").email("tx-booker@mail.ru").build());
+        for (int i = 0; i < 3; i++) {
+            item = itemService.addItem(ItemDto.builder()
+                    .name("Дрель " + i)
+                    .description("Простая дрель")
+                    .available(true)
+                    .build(), owner.getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userService.deleteUser(owner.getId());
+        userService.deleteUser(booker.getId());
+    }
+
+    @Test
+    void readPaths_whenInvoke_thenOneConnectionEach() {
+        assertEquals(1, connectionsFor(() -> itemService.getItems(owner.getId(), 0, 10)));
+        assertEquals(1, connectionsFor(() -> itemService.getItem(owner.getId(), item.getId())));
+        assertEquals(1, connectionsFor(() -> bookingService.getOwnerBookings("ALL", owner.getId(), 0, 10)));
+        assertEquals(1, connectionsFor(() -> userService.getUsers(0, 10)));
+        assertEquals(1, connectionsFor(() -> userService.streamUsers(user -> { })));
+    }
+
+    @Test
+    void writePaths_whenInvoke_thenOneConnectionEach() {
+        BookingDto[] booking = new BookingDto[1];
+        assertEquals(1, connectionsFor(() -> booking[0] = bookingService.addBooking(BookingWithoutObjDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build(), booker.getId())));
+        assertEquals(1, connectionsFor(() -> bookingService.approvedBooking(booking[0].getId(), true, owner.getId())));
+        assertEquals(1, connectionsFor(() -> itemService.addComment(CommentDto.builder().text("Отличная дрель").build(),
+                booker.getId(), item.getId())));
+    }
+
+    private long connectionsFor(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getConnectCount();
+    }
+}
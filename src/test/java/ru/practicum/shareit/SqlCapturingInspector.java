@@ -0,0 +1,30 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class SqlCapturingInspector implements StatementInspector {
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+
+    public static String lastSelect() {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            String sql = STATEMENTS.get(i);
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("No select statement captured");
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisoryItemBookingLockTest {
+    private static final String TRY_LOCK = "select pg_try_advisory_xact_lock(?, ?)";
+    private static final String LOCK = "select pg_advisory_xact_lock(?, ?)";
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Session session;
+    @Mock
+    private Connection connection;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdvisoryItemBookingLock lock;
+
+    @BeforeEach
+    void init() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        lock = new AdvisoryItemBookingLock(meterRegistry);
+        ReflectionTestUtils.setField(lock, "entityManager", entityManager);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(connection);
+            return null;
+        }).when(session).doWork(any());
+    }
+
+    @Test
+    void lockUntilCompletion_whenFree_thenOnlyTryLock() throws SQLException {
+        PreparedStatement tryLock = statement(Boolean.TRUE);
+        when(connection.prepareStatement(TRY_LOCK)).thenReturn(tryLock);
+
+        lock.lockUntilCompletion(List.of(7L));
+
+        verify(tryLock).setInt(1, AdvisoryItemBookingLock.NAMESPACE);
+        verify(tryLock).setInt(2, Long.hashCode(7L));
+        verify(connection, never()).prepareStatement(LOCK);
+        assertTrue(meterRegistry.find("shareit.booking.lock.wait").timers().isEmpty());
+    }
+
+    @Test
+    void lockUntilCompletion_whenHeldElsewhere_thenBlockingLockIsTimed() throws SQLException {
+        PreparedStatement tryLock = statement(Boolean.FALSE);
+        PreparedStatement blockingLock = statement(null);
+        when(connection.prepareStatement(TRY_LOCK)).thenReturn(tryLock);
+        when(connection.prepareStatement(LOCK)).thenReturn(blockingLock);
+
+        lock.lockUntilCompletion(List.of(7L));
+
+        verify(blockingLock).executeQuery();
+        Timer timer = meterRegistry.get("shareit.booking.lock.wait").timer();
+        assertEquals(1, timer.count());
+        assertEquals(List.of(Tag.of("mode", "advisory")), timer.getId().getTags());
+    }
+
+    private PreparedStatement statement(Boolean result) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getObject(1)).thenReturn(result);
+        return statement;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAvailabilityIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingAvailabilityIndex availabilityIndex;
+
+    private Item item;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void init() {
+        item = Item.builder().id(1L).build();
+        base = LocalDateTime.of(2030, 1, 1, 0, 0);
+        availabilityIndex.onStatusChanged(approved(1L, base.plusDays(1), base.plusDays(3)));
+        availabilityIndex.onStatusChanged(approved(2L, base.plusDays(3), base.plusDays(4)));
+        availabilityIndex.onStatusChanged(approved(3L, base.plusDays(10), base.plusDays(20)));
+    }
+
+    private Booking approved(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder().id(id).item(item).start(start).end(end).status(BookingStatus.APPROVED).build();
+    }
+
+    @Test
+    void isFree_whenPeriodOverlapsApprovedBooking_thenFalse() {
+        assertFalse(availabilityIndex.isFree(item.getId(), base, base.plusDays(1).plusHours(1)));
+        assertFalse(availabilityIndex.isFree(item.getId(), base.plusDays(15), base.plusDays(16)));
+    }
+
+    @Test
+    void isFree_whenPeriodTouchesApprovedBooking_thenTrue() {
+        assertTrue(availabilityIndex.isFree(item.getId(), base, base.plusDays(1)));
+        assertTrue(availabilityIndex.isFree(item.getId(), base.plusDays(4), base.plusDays(10)));
+    }
+
+    @Test
+    void isFree_whenItemHasNoBookings_thenTrue() {
+        assertTrue(availabilityIndex.isFree(99L, base, base.plusDays(1)));
+    }
+
+    @Test
+    void isFree_whenBookingRejected_thenPeriodReleased() {
+        Booking rejected = approved(1L, base.plusDays(1), base.plusDays(3));
+        rejected.setStatus(BookingStatus.REJECTED);
+
+        availabilityIndex.onStatusChanged(rejected);
+
+        assertTrue(availabilityIndex.isFree(item.getId(), base.plusDays(1), base.plusDays(3)));
+    }
+
+    @Test
+    void isFree_whenBookingWaiting_thenPeriodHeldUntilRejected() {
+        Booking waiting = approved(4L, base.plusDays(5), base.plusDays(6));
+        waiting.setStatus(BookingStatus.WAITING);
+
+        availabilityIndex.onStatusChanged(waiting);
+
+        assertFalse(availabilityIndex.isFree(item.getId(), base.plusDays(5), base.plusDays(6)));
+        waiting.setStatus(BookingStatus.REJECTED);
+        availabilityIndex.onStatusChanged(waiting);
+        assertTrue(availabilityIndex.isFree(item.getId(), base.plusDays(5), base.plusDays(6)));
+    }
+
+    @Test
+    void isFree_whenPeriodEnded_thenPrunedOnLookup() {
+        LocalDateTime now = LocalDateTime.now();
+        availabilityIndex.onStatusChanged(approved(4L, now.minusDays(3), now.minusDays(1)));
+        availabilityIndex.onStatusChanged(approved(5L, now.minusDays(1), now.plusDays(1)));
+
+        assertTrue(availabilityIndex.isFree(item.getId(), now.minusDays(2), now.minusDays(1).minusHours(1)));
+        assertFalse(availabilityIndex.isFree(item.getId(), now, now.plusHours(1)));
+    }
+
+    @Test
+    void forget_whenUserDeleted_thenItemsAndBookingsReleased() {
+        Item other = Item.builder().id(2L).build();
+        availabilityIndex.onStatusChanged(Booking.builder().id(6L).item(other)
+                .start(base.plusDays(1)).end(base.plusDays(2)).status(BookingStatus.WAITING).build());
+
+        availabilityIndex.forget(List.of(item.getId()), Map.of(other.getId(), List.of(6L)));
+
+        assertTrue(availabilityIndex.isFree(item.getId(), base, base.plusDays(30)));
+        assertTrue(availabilityIndex.isFree(other.getId(), base, base.plusDays(30)));
+    }
+
+    @Test
+    void nextFreeSlot_whenPeriodBusy_thenReturnEndOfAdjacentBookings() {
+        assertEquals(base.plusDays(4), availabilityIndex.nextFreeSlot(item.getId(), base.plusDays(2), Duration.ofDays(1)));
+        assertEquals(base.plusDays(20), availabilityIndex.nextFreeSlot(item.getId(), base.plusDays(2), Duration.ofDays(7)));
+        assertEquals(base, availabilityIndex.nextFreeSlot(item.getId(), base, Duration.ofDays(1)));
+    }
+
+    @Test
+    void seed_whenInvoke_thenLoadWaitingAndApprovedBookings() {
+        BookingAvailabilityIndex index = new BookingAvailabilityIndex(bookingRepository);
+        Booking waiting = approved(5L, base.plusDays(2), base.plusDays(3));
+        waiting.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findByStatusInAndEndAfter(Mockito.eq(BookingStatus.HOLDING), Mockito.any()))
+                .thenReturn(List.of(approved(4L, base, base.plusDays(1)), waiting));
+
+        index.seed();
+
+        assertFalse(index.isFree(item.getId(), base, base.plusHours(1)));
+        assertFalse(index.isFree(item.getId(), base.plusDays(2), base.plusDays(2).plusHours(1)));
+    }
+}
@@ -8,8 +8,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
@@ -21,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
@@ -281,4 +284,94 @@ class BookingControllerTest {
 
         verify(bookingService).getOwnerBookings("ALL", 1L, 13, 10);
     }
+
+    @SneakyThrows
+    @Test
+    void getBookerBookings_whenInvokeWithAfter_thenInvokeSeekAndReturnNextCursor() {
+        String after = PageCursor.encode(LocalDateTime.of(2023, 12, 10, 0, 0), 7L);
+        when(bookingService.getBookerBookingsAfter("ALL", 1L, after, 1)).thenReturn(List.of(bookingDto));
+
+        String nextCursor = mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", after)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+        verify(bookingService).getBookerBookingsAfter("ALL", 1L, after, 1);
+        assertEquals(PageCursor.encode(bookingDto.getStart(), bookingDto.getId()), nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void getOwnerBookings_whenPageNotFull_thenNoNextCursor() {
+        String after = PageCursor.encode(LocalDateTime.of(2023, 12, 10, 0, 0), 7L);
+        when(bookingService.getOwnerBookingsAfter("ALL", 1L, after, 10)).thenReturn(List.of(bookingDto));
+
+        String nextCursor = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", after))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+        verify(bookingService).getOwnerBookingsAfter("ALL", 1L, after, 10);
+        assertNull(nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void addBookings_whenInvoke_thenReturnPerEntryResults() {
+        List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.builder().index(0).status(200).booking(bookingDto).build(),
+                BookingBatchResultDto.builder().index(1).status(404).error("Item with ID 2 not found").build());
+        when(bookingService.addBookings(List.of(bookingWithoutObjDto, bookingWithoutObjDto), 1L)).thenReturn(results);
+
+        String result = mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(List.of(bookingWithoutObjDto, bookingWithoutObjDto))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void approveBookings_whenInvoke_thenReturnPerEntryResults() {
+        List<BookingDecisionDto> decisions = List.of(BookingDecisionDto.builder().bookingId(1L).approved(true).build());
+        List<BookingBatchResultDto> results = List.of(BookingBatchResultDto.builder().index(0).status(200).booking(bookingDto).build());
+        when(bookingService.approveBookings(decisions, 1L)).thenReturn(results);
+
+        String result = mockMvc.perform(patch("/bookings/approval")
+                        .contentType("application/json")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+        verify(bookingService).approveBookings(decisions, 1L);
+    }
+
+    @SneakyThrows
+    @Test
+    void streamBookingStatuses_whenInvoke_thenAsyncStartedWithLastEventId() {
+        when(bookingService.streamBookingStatuses(1L, "3")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Last-Event-ID", "3"))
+                .andExpect(request().asyncStarted());
+
+        verify(bookingService).streamBookingStatuses(1L, "3");
+    }
 }
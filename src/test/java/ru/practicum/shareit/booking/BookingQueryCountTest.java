@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the number of SQL statements per booking endpoint, independent of the page size.
+ * A status change is one guarded UPDATE plus the select that builds the response.
+ */
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingQueryCountTest {
+
+    private final BookingService bookingService;
+    private final UserExistenceGuard userExistenceGuard;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getOwnerBookings_whenPageGrows_thenOneStatement() {
+        Seed small = seed("small", 1);
+        Seed large = seed("large", 10);
+
+        assertEquals(1, statementsFor(() -> bookingService.getOwnerBookings("ALL", small.owner.getId(), 0, 20)));
+        assertEquals(1, statementsFor(() -> bookingService.getOwnerBookings("ALL", large.owner.getId(), 0, 20)));
+    }
+
+    @Test
+    void getBookerBookings_whenPageGrows_thenOneStatement() {
+        Seed small = seed("small", 1);
+        Seed large = seed("large", 10);
+
+        assertEquals(1, statementsFor(() -> bookingService.getBookerBookings("ALL", small.booker.getId(), 0, 20)));
+        assertEquals(1, statementsFor(() -> bookingService.getBookerBookings("ALL", large.booker.getId(), 0, 20)));
+    }
+
+    @Test
+    void getBookingsAfter_whenCursorGiven_thenOneStatement() {
+        Seed seed = seed("cursor", 10);
+        String after = PageCursor.encode(LocalDateTime.now().plusYears(1), Long.MAX_VALUE);
+
+        assertEquals(1, statementsFor(() -> bookingService.getOwnerBookingsAfter("ALL", seed.owner.getId(), after, 20)));
+        assertEquals(1, statementsFor(() -> bookingService.getBookerBookingsAfter("ALL", seed.booker.getId(), after, 20)));
+    }
+
+    @Test
+    void getBooking_whenInvoke_thenOneStatement() {
+        Seed seed = seed("single", 1);
+
+        assertEquals(1, statementsFor(() -> bookingService.getBooking(seed.bookings.get(0).getId(), seed.owner.getId())));
+    }
+
+    @Test
+    void approvedBooking_whenInvoke_thenGuardedUpdateAndOneSelect() {
+        Seed seed = seed("decision", 1);
+
+        assertEquals(2, statementsFor(() -> bookingService.approvedBooking(seed.bookings.get(0).getId(), false, seed.owner.getId())));
+    }
+
+    private long statementsFor(Supplier<Object> call) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Seed seed(String name, int bookings) {
+        Seed seed = new Seed();
+        seed.owner = persist(User.builder().name("owner").email(name + "-owner@mail.ru").build());
+        seed.booker = persist(User.builder().name("booker").email(name + "-booker@mail.ru").build());
+        userExistenceGuard.requireExists(seed.owner.getId());
+        userExistenceGuard.requireExists(seed.booker.getId());
+        User requestor = persist(User.builder().name("requestor").email(name + "-requestor@mail.ru").build());
+        LocalDateTime start = LocalDateTime.now().minusDays(bookings);
+        seed.bookings = new ArrayList<>();
+        for (int i = 0; i < bookings; i++) {
+            ItemRequest request = persist(ItemRequest.builder()
+                    .description("Нужна дрель " + i)
+                    .requestor(requestor)
+                    .created(start)
+                    .build());
+            Item item = persist(Item.builder()
+                    .name("Дрель " + i)
+                    .description("Простая дрель")
+                    .available(true)
+                    .owner(seed.owner)
+                    .request(request)
+                    .build());
+            seed.bookings.add(persist(Booking.builder()
+                    .item(item)
+                    .booker(seed.booker)
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i + 1))
+                    .status(BookingStatus.APPROVED)
+                    .build()));
+        }
+        return seed;
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    private static class Seed {
+        private User owner;
+        private User booker;
+        private List<Booking> bookings;
+    }
+}
@@ -5,12 +5,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.context.TestPropertySource;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 
@@ -29,6 +31,8 @@ class BookingRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
 
     private Pageable pageable;
 
@@ -100,19 +104,36 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void getBookerRejectedBooking_whenInvoke_ReturnedOnlyRejectedBooking() {
-        List<Booking> bookingList = bookingRepository.getBookerRejectedBooking(savedBooker.getId(), pageable);
+    void findByQuery_whenBookerRejected_ReturnedOnlyRejectedBooking() {
+        List<Booking> bookingList = bookingRepository.findByQuery(query(BookingQuery.Role.BOOKER, savedBooker.getId(), BookingState.REJECTED, null));
         assertEquals(bookingList.size(), 1);
         assertEquals(bookingList.get(0).getStatus(), BookingStatus.REJECTED);
     }
 
     @Test
-    void getOwnerRejectedBooking_whenInvoke_ReturnedOnlyRejectedBooking() {
-        List<Booking> bookingList = bookingRepository.getOwnerRejectedBooking(savedOwner.getId(), pageable);
+    void findByQuery_whenOwnerRejected_ReturnedOnlyRejectedBooking() {
+        List<Booking> bookingList = bookingRepository.findByQuery(query(BookingQuery.Role.OWNER, savedOwner.getId(), BookingState.REJECTED, null));
         assertEquals(bookingList.size(), 1);
         assertEquals(bookingList.get(0).getStatus(), BookingStatus.REJECTED);
     }
 
+    @Test
+    void findByQuery_whenOwnerAll_ReturnedNewestFirst() {
+        List<Booking> bookingList = bookingRepository.findByQuery(query(BookingQuery.Role.OWNER, savedOwner.getId(), BookingState.ALL, null));
+        assertEquals(bookingList.size(), 3);
+        assertEquals(bookingList.get(0).getId(), nextBooking.getId());
+        assertEquals(bookingList.get(1).getId(), lastBooking.getId());
+    }
+
+    @Test
+    void findByQuery_whenBookerFutureAndPast_ReturnedMatchingBooking() {
+        List<Booking> future = bookingRepository.findByQuery(query(BookingQuery.Role.BOOKER, savedBooker.getId(), BookingState.FUTURE, null));
+        List<Booking> past = bookingRepository.findByQuery(query(BookingQuery.Role.BOOKER, savedBooker.getId(), BookingState.PAST, null));
+        assertEquals(future.size(), 1);
+        assertEquals(future.get(0).getId(), nextBooking.getId());
+        assertEquals(past.size(), 2);
+    }
+
     @Test
     void getItemLastBooking_whenInvoke_ReturnedOnlyLastBooking() {
         Optional<Booking> booking = bookingRepository.getItemLastBooking(savedItem.getId(), LocalDateTime.now());
@@ -130,4 +151,67 @@ class BookingRepositoryTest {
         Optional<Booking> booking = bookingRepository.getByBookerAndItemPastApprovedBooking(savedBooker.getId(), savedItem.getId(), LocalDateTime.now());
         assertEquals(booking.get().getId(), lastBooking.getId());
     }
+
+    @Test
+    void getItemsLastAndNextBookings_whenInvoke_ReturnedLastAndNextBookingPerItem() {
+        Item otherItem = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .available(true)
+                .description("Сверлилка")
+                .owner(savedOwner)
+                .build());
+        Booking otherItemBooking = bookingRepository.save(Booking.builder()
+                .item(otherItem)
+                .start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4))
+                .booker(savedBooker)
+                .status(BookingStatus.APPROVED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(savedItem)
+                .start(LocalDateTime.now().plusDays(5))
+                .end(LocalDateTime.now().plusDays(6))
+                .booker(savedBooker)
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        List<Booking> bookingList = bookingRepository.getItemsLastAndNextBookings(List.of(savedItem.getId(), otherItem.getId()), LocalDateTime.now());
+
+        assertEquals(bookingList.size(), 3);
+        assertTrue(bookingList.stream().anyMatch(b -> b.getId().equals(lastBooking.getId())));
+        assertTrue(bookingList.stream().anyMatch(b -> b.getId().equals(nextBooking.getId())));
+        assertTrue(bookingList.stream().anyMatch(b -> b.getId().equals(otherItemBooking.getId())));
+    }
+
+    @Test
+    void findByQuery_whenAfterCursor_ReturnedRowsBelowCursorOrderedByStartAndId() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+        List<Booking> firstPage = bookingRepository.findByQuery(BookingQuery.builder()
+                .role(BookingQuery.Role.BOOKER)
+                .userId(savedBooker.getId())
+                .state(BookingState.ALL)
+                .now(LocalDateTime.now())
+                .limit(1)
+                .build());
+        Booking last = firstPage.get(0);
+
+        List<Booking> nextPage = bookingRepository.findByQuery(query(BookingQuery.Role.BOOKER, savedBooker.getId(), BookingState.ALL,
+                new PageCursor(last.getStart(), last.getId())));
+
+        assertEquals(firstPage.get(0).getId(), nextBooking.getId());
+        assertEquals(nextPage.size(), 2);
+        assertEquals(nextPage.get(0).getId(), lastBooking.getId());
+    }
+
+    private BookingQuery query(BookingQuery.Role role, Long userId, BookingState state, PageCursor after) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .now(LocalDateTime.now())
+                .after(after)
+                .limit(10)
+                .build();
+    }
 }
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadDataException;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.user.UserDto;
@@ -16,6 +18,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "db.name=test")
@@ -73,7 +76,7 @@ class BookingServiceIntegrationTest {
         BookingWithoutObjDto booking3 = BookingWithoutObjDto.builder()
                 .itemId(savedItem.getId())
                 .start(LocalDateTime.now().minusDays(2))
-                .end(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusHours(12))
                 .bookerId(savedBooker.getId())
                 .build();
 
@@ -138,12 +141,117 @@ class BookingServiceIntegrationTest {
         assertEquals(approvedBooking.getStatus(), BookingStatus.APPROVED);
     }
 
+    @Test
+    void approvedBooking_whenAlreadyApproved_thenBadDataExceptionAndUnchanged() {
+        assertThrows(BadDataException.class, () -> bookingService.approvedBooking(lastBooking.getId(), true, savedOwner.getId()));
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(lastBooking.getId()).get().getStatus());
+    }
+
+    @Test
+    void approvedBooking_whenNotOwner_thenNotFoundExceptionAndUnchanged() {
+        assertThrows(NotFoundException.class, () -> bookingService.approvedBooking(nextBooking.getId(), true, savedBooker.getId()));
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(nextBooking.getId()).get().getStatus());
+    }
+
+    @Test
+    void approvedBooking_whenOverlapsApproved_thenBadDataExceptionAndUnchanged() {
+        Booking overlapping = overlappingWaitingBooking(nextBooking);
+        bookingService.approvedBooking(nextBooking.getId(), true, savedOwner.getId());
+
+        BadDataException e = assertThrows(BadDataException.class,
+                () -> bookingService.approvedBooking(overlapping.getId(), true, savedOwner.getId()));
+        assertEquals("The item is already booked for this period", e.getMessage());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(overlapping.getId()).get().getStatus());
+    }
+
+    @Test
+    void approveBookings_whenOverlappingInSameBatch_thenOnlyFirstApproved() {
+        Booking overlapping = overlappingWaitingBooking(nextBooking);
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(nextBooking.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(overlapping.getId()).approved(true).build()), savedOwner.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(overlapping.getId()).get().getStatus());
+    }
+
+    @Test
+    void approveBookings_whenOverlappingApprovedBooking_thenBadRequestAndStillWaiting() {
+        Booking overlapping = overlappingWaitingBooking(lastBooking);
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(overlapping.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(nextBooking.getId()).approved(true).build()), savedOwner.getId());
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals("The item is already booked for this period", results.get(0).getError());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(overlapping.getId()).get().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(nextBooking.getId()).get().getStatus());
+    }
+
+    @Test
+    void approvedBooking_whenRejectApproved_thenRejected() {
+        BookingDto rejected = bookingService.approvedBooking(lastBooking.getId(), false, savedOwner.getId());
+
+        assertEquals(BookingStatus.REJECTED, rejected.getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(lastBooking.getId()).get().getStatus());
+    }
+
+    @Test
+    void approveBookings_whenMixedDecisions_thenStatusesUpdatedPerEntry() {
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(nextBooking.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(lastBooking.getId()).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(bookingRejected.getId()).approved(false).build()), savedOwner.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals(200, results.get(2).getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(nextBooking.getId()).get().getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(bookingRejected.getId()).get().getStatus());
+    }
+
+    @Test
+    void approveBookings_whenNotOwner_thenNotFoundAndUnchanged() {
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(nextBooking.getId()).approved(true).build()), savedBooker.getId());
+
+        assertEquals(404, results.get(0).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(nextBooking.getId()).get().getStatus());
+    }
+
+    @Test
+    void addBooking_whenPeriodHeldByWaitingBooking_thenBadDataException() {
+        BookingWithoutObjDto newBooking = BookingWithoutObjDto.builder()
+                .itemId(savedItem.getId())
+                .start(nextBooking.getStart().plusHours(1))
+                .end(nextBooking.getEnd().plusHours(1))
+                .build();
+
+        assertThrows(BadDataException.class, () -> bookingService.addBooking(newBooking, savedBooker.getId()));
+    }
+
+    private Booking overlappingWaitingBooking(BookingDto bookingDto) {
+        Booking booking = bookingRepository.findById(bookingDto.getId()).orElseThrow();
+        return bookingRepository.save(Booking.builder()
+                .item(booking.getItem())
+                .booker(booking.getBooker())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+
     @Test
     void addBooking_whenAddBooking_thenStatusWaiting() {
         BookingWithoutObjDto newBooking = BookingWithoutObjDto.builder()
                 .itemId(savedItem.getId())
-                .start(LocalDateTime.now().plusDays(1))
-                .end(LocalDateTime.now().plusDays(2))
+                .start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4))
                 .bookerId(savedBooker.getId())
                 .build();
         BookingDto savedBooking = bookingService.addBooking(newBooking, savedBooker.getId());
@@ -5,19 +5,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.BadDataException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.*;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
 import ru.practicum.shareit.user.UserRepository;
 
+import javax.validation.Validator;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,10 +37,20 @@ class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceGuard userExistenceGuard;
+    @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+    @Mock
+    private Validator validator;
+    @Mock
+    private ItemBookingLock itemBookingLock;
+    @Mock
+    private BookingStatusStream bookingStatusStream;
 
     @Captor
-    private ArgumentCaptor<Pageable> pageArgumentCaptor;
+    private ArgumentCaptor<BookingQuery> queryArgumentCaptor;
 
     @InjectMocks
     private BookingService bookingService;
@@ -113,19 +128,275 @@ class BookingServiceTest {
         verify(bookingValidator, Mockito.atLeast(1)).checkItemAvailable(Mockito.any());
         verify(bookingValidator, Mockito.atLeast(1)).checkBookingStartBeforeEnd(Mockito.any());
         verify(bookingValidator, Mockito.atLeast(1)).checkNotYourOwnItem(Mockito.anyLong(), Mockito.any());
+        verify(itemBookingLock).lockUntilCompletion(List.of(item.getId()));
     }
 
     @Test
-    void approvedBooking_whenUserNotFound_thenNotFoundException() {
+    void addBooking_whenInvoke_thenSavedAsWaitingAndDtoUntouched() {
+        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.save(Mockito.any())).thenReturn(booking);
+
+        bookingService.addBooking(bookingDto, user.getId());
+
+        verify(bookingRepository).save(Mockito.argThat(saved -> saved.getStatus() == BookingStatus.WAITING));
+        assertEquals(BookingStatus.APPROVED, bookingDto.getStatus());
+        verify(bookingAvailabilityIndex).onStatusChanged(booking);
+    }
+
+    @Test
+    void addBooking_whenPeriodAlreadyBooked_thenBadDataException() {
+        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsOverlapping(item.getId(),
+                Set.of(BookingStatus.WAITING, BookingStatus.APPROVED), bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+
+        assertThrows(BadDataException.class, () -> bookingService.addBooking(bookingDto, user.getId()));
+        InOrder inOrder = inOrder(itemBookingLock, bookingRepository);
+        inOrder.verify(itemBookingLock).lockUntilCompletion(List.of(item.getId()));
+        inOrder.verify(bookingRepository).existsOverlapping(Mockito.anyLong(), Mockito.anyCollection(), Mockito.any(), Mockito.any());
+        verify(bookingRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void addBookings_whenUserNotFound_thenNotFoundException() {
         when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
+        assertThrows(NotFoundException.class, () -> bookingService.addBookings(List.of(bookingDto), user.getId()));
+        verify(bookingRepository, never()).saveAll(Mockito.any());
+    }
+
+    @Test
+    void addBookings_whenBatchTooLarge_thenBadDataException() {
+        List<BookingWithoutObjDto> bookings = Collections.nCopies(BookingService.MAX_BATCH_SIZE + 1, bookingDto);
+
+        assertThrows(BadDataException.class, () -> bookingService.addBookings(bookings, user.getId()));
+        verify(userRepository, never()).findById(Mockito.anyLong());
+    }
+
+    @Test
+    void addBookings_whenSomeEntriesInvalid_thenPerEntryResultsAndOneSaveAll() {
+        BookingWithoutObjDto missingItem = BookingWithoutObjDto.builder()
+                .itemId(99L)
+                .start(bookingDto.getStart())
+                .end(bookingDto.getEnd())
+                .build();
+        BookingWithoutObjDto alreadyBooked = BookingWithoutObjDto.builder()
+                .itemId(item.getId())
+                .start(bookingDto.getStart().plusYears(1))
+                .end(bookingDto.getEnd().plusYears(1))
+                .build();
+        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findWithOwnerByIdIn(Mockito.anyCollection())).thenReturn(List.of(item));
+        Booking held = Booking.builder().id(7L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(LocalDateTime.of(2024, 1, 1, 0, 0)).end(LocalDateTime.of(2024, 3, 1, 0, 0)).build();
+        when(bookingRepository.findOverlapping(Mockito.anyCollection(), Mockito.anyCollection(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(held));
+        when(bookingRepository.saveAll(Mockito.anyList())).thenReturn(List.of(booking));
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(List.of(bookingDto, missingItem, alreadyBooked), user.getId());
+
+        assertEquals(3, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(booking.getId(), results.get(0).getBooking().getId());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(400, results.get(2).getStatus());
+        assertEquals(2, results.get(2).getIndex());
+        verify(itemRepository).findWithOwnerByIdIn(Mockito.anyCollection());
+        verify(bookingRepository).saveAll(Mockito.argThat(bookings -> ((List<?>) bookings).size() == 1));
+        verify(bookingRepository, never()).save(Mockito.any());
+        verify(bookingAvailabilityIndex).onStatusChanged(booking);
+    }
+
+    @Test
+    void addBookings_whenEntryNull_thenBadRequestForThatIndexOnly() {
+        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findWithOwnerByIdIn(Mockito.anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.saveAll(Mockito.anyList())).thenReturn(List.of(booking));
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(Arrays.asList(null, bookingDto), user.getId());
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals(0, results.get(0).getIndex());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingDto.getStatus());
+        verify(bookingRepository).saveAll(Mockito.argThat(bookings -> ((List<?>) bookings).size() == 1));
+    }
+
+    @Test
+    void addBookings_whenEntriesOverlapEachOther_thenOnlyFirstAccepted() {
+        BookingWithoutObjDto first = BookingWithoutObjDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.of(2030, 1, 1, 0, 0))
+                .end(LocalDateTime.of(2030, 1, 5, 0, 0))
+                .build();
+        BookingWithoutObjDto second = BookingWithoutObjDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.of(2030, 1, 4, 0, 0))
+                .end(LocalDateTime.of(2030, 1, 8, 0, 0))
+                .build();
+        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findWithOwnerByIdIn(Mockito.anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.saveAll(Mockito.anyList())).thenReturn(List.of(booking));
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(List.of(first, second), user.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        verify(bookingRepository).findOverlapping(Set.of(item.getId()),
+                Set.of(BookingStatus.WAITING, BookingStatus.APPROVED), first.getStart(), second.getEnd());
+        verify(bookingRepository).saveAll(Mockito.argThat(bookings -> ((List<?>) bookings).size() == 1));
+    }
+
+    @Test
+    void approveBookings_whenMixedDecisions_thenOneLoadAndOneUpdatePerGroup() {
+        Booking waiting = Booking.builder().id(2L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        Booking approvedAlready = Booking.builder().id(3L).item(item).booker(user).status(BookingStatus.APPROVED)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        Booking later = Booking.builder().id(5L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(booking.getStart().plusYears(1)).end(booking.getEnd().plusYears(1)).build();
+        when(bookingRepository.findByIdInAndItemOwnerId(Mockito.anyCollection(), Mockito.eq(user.getId())))
+                .thenReturn(List.of(waiting, approvedAlready, later));
+        lenient().doThrow(new BadDataException("Cannot be approved in this status")).when(bookingValidator).checkBookingStatus(true, approvedAlready);
+        when(bookingRepository.findIdsByIdInAndStatusNot(List.of(2L, 5L), BookingStatus.APPROVED)).thenReturn(List.of(2L, 5L));
+        when(bookingRepository.findIdsByIdInAndStatus(List.of(2L, 5L), BookingStatus.APPROVED)).thenReturn(List.of(2L, 5L));
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(2L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(3L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(4L).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(2L).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(null).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(5L).approved(true).build()), user.getId());
+
+        assertEquals(List.of(200, 400, 404, 400, 400, 200), results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBooking().getStatus());
+        verify(bookingRepository).approveOwnedWhereFree(List.of(2L, 5L), user.getId());
+        verify(bookingRepository, never()).updateOwnedStatusWhereNotAlreadyAndFree(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any(), Mockito.anyLong(), Mockito.any(), Mockito.any());
+        verify(bookingRepository, never()).updateOwnedStatusIn(Mockito.anyCollection(), Mockito.anyLong(), Mockito.any());
+        verify(bookingAvailabilityIndex).onStatusChanged(waiting);
+        verify(bookingAvailabilityIndex).onStatusChanged(later);
+        verify(bookingStatusStream).publish(results.get(0).getBooking());
+        verify(bookingRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void approveBookings_whenEntriesOverlapEachOther_thenLaterRefusedWithoutUpdate() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Booking first = Booking.builder().id(2L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(start).end(start.plusDays(2)).build();
+        Booking second = Booking.builder().id(3L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(start.plusDays(1)).end(start.plusDays(3)).build();
+        when(bookingRepository.findByIdInAndItemOwnerId(Mockito.anyCollection(), Mockito.eq(user.getId())))
+                .thenReturn(List.of(first, second));
+        when(bookingRepository.findIdsByIdInAndStatusNot(List.of(2L), BookingStatus.APPROVED)).thenReturn(List.of(2L));
+        when(bookingRepository.findIdsByIdInAndStatus(List.of(2L), BookingStatus.APPROVED)).thenReturn(List.of(2L));
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(2L).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(3L).approved(true).build()), user.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals("The item is already booked for this period", results.get(1).getError());
+        verify(bookingRepository).approveOwnedWhereFree(List.of(2L), user.getId());
+    }
+
+    @Test
+    void approveBookings_whenRejectedRowGone_thenNotFoundForThatEntryOnly() {
+        Booking waiting = Booking.builder().id(2L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        Booking deleted = Booking.builder().id(5L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        when(bookingRepository.findByIdInAndItemOwnerId(Mockito.anyCollection(), Mockito.eq(user.getId())))
+                .thenReturn(List.of(waiting, deleted));
+        when(bookingRepository.updateOwnedStatusIn(List.of(2L, 5L), user.getId(), BookingStatus.REJECTED)).thenReturn(1);
+        when(bookingRepository.findIdsByIdIn(List.of(2L, 5L))).thenReturn(List.of(2L));
+        when(bookingRepository.findById(5L)).thenReturn(Optional.empty());
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(2L).approved(false).build(),
+                BookingDecisionDto.builder().bookingId(5L).approved(false).build()), user.getId());
+
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(BookingStatus.REJECTED, results.get(0).getBooking().getStatus());
+        assertEquals(404, results.get(1).getStatus());
+        verify(bookingAvailabilityIndex).onStatusChanged(waiting);
+        verify(bookingAvailabilityIndex, never()).onStatusChanged(deleted);
+    }
+
+    @Test
+    void approveBookings_whenEntryNull_thenBadRequestForThatIndexOnly() {
+        Booking waiting = Booking.builder().id(2L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        when(bookingRepository.findByIdInAndItemOwnerId(Mockito.anyCollection(), Mockito.eq(user.getId())))
+                .thenReturn(List.of(waiting));
+        when(bookingRepository.updateOwnedStatusIn(List.of(2L), user.getId(), BookingStatus.REJECTED)).thenReturn(1);
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(Arrays.asList(
+                null, BookingDecisionDto.builder().bookingId(2L).approved(false).build()), user.getId());
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+    }
+
+    @Test
+    void approveBookings_whenRowChangedConcurrently_thenBadRequestAndNotPublished() {
+        Booking waiting = Booking.builder().id(2L).item(item).booker(user).status(BookingStatus.WAITING)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        when(bookingRepository.findByIdInAndItemOwnerId(Mockito.anyCollection(), Mockito.eq(user.getId())))
+                .thenReturn(List.of(waiting));
+        Booking approvedMeanwhile = Booking.builder().id(2L).item(item).booker(user).status(BookingStatus.APPROVED)
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        when(bookingRepository.findById(2L)).thenReturn(Optional.of(approvedMeanwhile));
+        when(bookingRepository.findIdsByIdInAndStatus(List.of(2L), BookingStatus.APPROVED)).thenReturn(List.of(2L));
+
+        List<BookingBatchResultDto> results = bookingService.approveBookings(List.of(
+                BookingDecisionDto.builder().bookingId(2L).approved(true).build()), user.getId());
+
+        assertEquals(400, results.get(0).getStatus());
+        assertEquals("Cannot be approved in this status", results.get(0).getError());
+        assertEquals(BookingStatus.WAITING, waiting.getStatus());
+        verify(bookingAvailabilityIndex, never()).onStatusChanged(Mockito.any());
+        verify(bookingStatusStream, never()).publish(Mockito.any());
+    }
+
+    @Test
+    void streamBookingStatuses_whenUserNotFound_thenNotFoundException() {
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
+
+        assertThrows(NotFoundException.class, () -> bookingService.streamBookingStatuses(1L, null));
+        verify(bookingStatusStream, never()).subscribe(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void streamBookingStatuses_whenInvoke_thenSubscribedWithLastEventId() {
+        bookingService.streamBookingStatuses(user.getId(), "3");
+
+        verify(bookingStatusStream).subscribe(user.getId(), "3");
+    }
+
+    @Test
+    void approveBookings_whenUserNotFound_thenNotFoundException() {
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
+
+        assertThrows(NotFoundException.class, () -> bookingService.approveBookings(
+                List.of(BookingDecisionDto.builder().bookingId(1L).approved(true).build()), 1L));
+        verify(bookingRepository, never()).findByIdInAndItemOwnerId(Mockito.anyCollection(), Mockito.anyLong());
+    }
+
+    @Test
+    void approvedBooking_whenUserNotFound_thenNotFoundException() {
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
+
         assertThrows(NotFoundException.class, () -> bookingService.approvedBooking(1L, true, 1L));
         verify(bookingRepository, never()).save(Mockito.any());
     }
 
     @Test
     void approvedBooking_whenBookingNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.approvedBooking(1L, true, 1L));
@@ -135,7 +406,6 @@ class BookingServiceTest {
     void approvedBooking_whenUserNotOwner_thenNotFoundException() {
         User newUser = User.builder().id(99L).build();
         booking.getItem().setOwner(newUser);
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
 
         assertThrows(NotFoundException.class, () -> bookingService.approvedBooking(1L, true, 1L));
@@ -143,13 +413,41 @@ class BookingServiceTest {
 
     @Test
     void approvedBooking_whenApproved_thenStatusChanged() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.updateOwnedStatus(1L, 1L, BookingStatus.REJECTED)).thenReturn(1);
         when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingDto actualBookingDto = bookingService.approvedBooking(1L, false, 1L);
 
         assertEquals(actualBookingDto.getStatus(), BookingStatus.REJECTED);
+        verify(bookingAvailabilityIndex).onStatusChanged(booking);
+        verify(bookingStatusStream).publish(actualBookingDto);
+        verify(bookingRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void approvedBooking_whenAlreadyApproved_thenBadDataException() {
+        when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
+        doThrow(new BadDataException("Cannot be approved in this status")).when(bookingValidator).checkBookingStatus(true, booking);
+
+        assertThrows(BadDataException.class, () -> bookingService.approvedBooking(1L, true, 1L));
+        verify(bookingRepository, never()).updateOwnedStatusWhereNotAlreadyAndFree(Mockito.anyLong(), Mockito.anyLong(),
+                Mockito.any(), Mockito.anyLong(), Mockito.any(), Mockito.any());
+        verify(bookingAvailabilityIndex, never()).onStatusChanged(Mockito.any());
+        verify(bookingStatusStream, never()).publish(Mockito.any());
+    }
+
+    @Test
+    void approvedBooking_whenOverlapsApproved_thenBadDataException() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.updateOwnedStatusWhereNotAlreadyAndFree(1L, 1L, BookingStatus.APPROVED,
+                item.getId(), booking.getStart(), booking.getEnd())).thenReturn(0);
+
+        BadDataException e = assertThrows(BadDataException.class, () -> bookingService.approvedBooking(1L, true, 1L));
+        assertEquals("The item is already booked for this period", e.getMessage());
+        verify(itemBookingLock).lockUntilCompletion(List.of(item.getId()));
+        verify(bookingAvailabilityIndex, never()).onStatusChanged(Mockito.any());
+        verify(bookingStatusStream, never()).publish(Mockito.any());
     }
 
     @Test
@@ -163,149 +461,217 @@ class BookingServiceTest {
 
     @Test
     void getOwnerBookings_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> bookingService.getOwnerBookings("ALL", 1L, 0, 10));
     }
 
     @Test
-    void getOwnerBookings_whenStateALL_thenInvokeGetOwnerBookings() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getOwnerBookings_whenStateALL_thenQueryOwnerAllBookings() {
 
         bookingService.getOwnerBookings("ALL", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByItemOwnerId(user.getId(), PageRequest.of(0, 10, Sort.by("start").descending()));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.ALL, query.getState());
+        assertEquals(user.getId(), query.getUserId());
     }
 
     @Test
-    void getOwnerBookings_whenStateCURRENT_thenInvokeGetOwnerCurrentBooking() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getOwnerBookings_whenStateCURRENT_thenQueryOwnerCurrentBookings() {
 
         bookingService.getOwnerBookings("CURRENT", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByItemOwnerIdAndStartLessThanAndEndGreaterThan(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.CURRENT, query.getState());
+        assertEquals(user.getId(), query.getUserId());
     }
 
     @Test
-    void getOwnerBookings_whenStateFUTURE_thenInvokeGetOwnerFutureBooking() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getOwnerBookings_whenStateFUTURE_thenQueryOwnerFutureBookings() {
 
         bookingService.getOwnerBookings("FUTURE", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByItemOwnerIdAndStartGreaterThan(Mockito.anyLong(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.FUTURE, query.getState());
+        assertEquals(user.getId(), query.getUserId());
     }
 
     @Test
-    void getOwnerBookings_whenStatePAST_thenInvokeGetOwnerPastBooking() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getOwnerBookings_whenStatePAST_thenQueryOwnerPastBookings() {
 
         bookingService.getOwnerBookings("PAST", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByItemOwnerIdAndEndLessThan(Mockito.anyLong(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.PAST, query.getState());
+        assertEquals(user.getId(), query.getUserId());
     }
 
     @Test
-    void getOwnerBookings_whenStateREJECTED_thenInvokeGetOwnerRejectedBooking() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getOwnerBookings_whenStateREJECTED_thenQueryOwnerRejectedBookings() {
 
         bookingService.getOwnerBookings("REJECTED", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).getOwnerRejectedBooking(Mockito.anyLong(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.REJECTED, query.getState());
+        assertEquals(user.getId(), query.getUserId());
     }
 
     @Test
-    void getOwnerBookings_whenStateWAITING_thenInvokeGetOwnerWaitingBooking() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getOwnerBookings_whenStateWAITING_thenQueryOwnerWaitingBookings() {
 
         bookingService.getOwnerBookings("WAITING", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByItemOwnerIdAndStartGreaterThanEqualAndStatus(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.WAITING, query.getState());
+        assertEquals(user.getId(), query.getUserId());
     }
 
     @Test
     void getOwnerBookings_whenStateUnknown_thenBadDataException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
 
         assertThrows(BadDataException.class, () -> bookingService.getOwnerBookings("Unknown", 1L, 0, 10));
     }
 
     @Test
     void getBookerBookings_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> bookingService.getBookerBookings("ALL", 1L, 0, 10));
     }
 
     @Test
-    void getBookerBookings_whenStateALL_thenInvokeFindByBookerId() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getBookerBookings_whenStateALL_thenQueryBookerAllBookings() {
 
         bookingService.getBookerBookings("ALL", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByBookerId(user.getId(), PageRequest.of(0, 10, Sort.by("start").descending()));
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(BookingState.ALL, query.getState());
+        assertEquals(user.getId(), query.getUserId());
+        assertNull(query.getAfter());
     }
 
     @Test
-    void getBookerBookings_whenStateCURRENT_thenInvokeFindByBookerIdAndStartLessThanAndEndGreaterThan() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getBookerBookings_whenStateCURRENT_thenQueryBookerCurrentBookings() {
 
         bookingService.getBookerBookings("CURRENT", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByBookerIdAndStartLessThanAndEndGreaterThan(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(BookingState.CURRENT, query.getState());
+        assertEquals(user.getId(), query.getUserId());
+        assertNull(query.getAfter());
     }
 
     @Test
-    void getBookerBookings_whenStateFUTURE_thenInvokeFindByBookerIdAndStartGreaterThan() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getBookerBookings_whenStateFUTURE_thenQueryBookerFutureBookings() {
 
         bookingService.getBookerBookings("FUTURE", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByBookerIdAndStartGreaterThan(Mockito.anyLong(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(BookingState.FUTURE, query.getState());
+        assertEquals(user.getId(), query.getUserId());
+        assertNull(query.getAfter());
     }
 
     @Test
-    void getBookerBookings_whenStatePAST_thenInvokeFindByBookerIdAndEndLessThan() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getBookerBookings_whenStatePAST_thenQueryBookerPastBookings() {
 
         bookingService.getBookerBookings("PAST", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByBookerIdAndEndLessThan(Mockito.anyLong(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(BookingState.PAST, query.getState());
+        assertEquals(user.getId(), query.getUserId());
+        assertNull(query.getAfter());
     }
 
     @Test
-    void getBookerBookings_whenStateREJECTED_thenInvokeGetBookerRejectedBooking() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getBookerBookings_whenStateREJECTED_thenQueryBookerRejectedBookings() {
 
         bookingService.getBookerBookings("REJECTED", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).getBookerRejectedBooking(Mockito.anyLong(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(BookingState.REJECTED, query.getState());
+        assertEquals(user.getId(), query.getUserId());
+        assertNull(query.getAfter());
     }
 
     @Test
-    void getBookerBookings_whenStateWAITING_thenInvokeFindByBookerIdAndStartGreaterThanEqualAndStatusIs() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void getBookerBookings_whenStateWAITING_thenQueryBookerWaitingBookings() {
 
         bookingService.getBookerBookings("WAITING", user.getId(), 0, 10);
 
-        verify(bookingRepository, Mockito.atLeast(1)).findByBookerIdAndStartGreaterThanEqualAndStatusIs(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(BookingState.WAITING, query.getState());
+        assertEquals(user.getId(), query.getUserId());
+        assertNull(query.getAfter());
     }
 
     @Test
     void getBookerBookings_whenStateUnknown_thenBadDataException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
 
         assertThrows(BadDataException.class, () -> bookingService.getBookerBookings("Unknown", 1L, 0, 10));
     }
 
     @Test
-    void convertToPageSettings_whenInvokeStart13_thenInvokeWithPage3() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+    void convertToPageSettings_whenInvokeStart13_thenQueryFromOffset15() {
 
         bookingService.getBookerBookings("ALL", user.getId(), 13, 5);
 
-        verify(bookingRepository).findByBookerId(Mockito.anyLong(), pageArgumentCaptor.capture());
-        Pageable savedPage = pageArgumentCaptor.getValue();
+        BookingQuery query = captureQuery();
+        assertEquals(15, query.getOffset());
+        assertEquals(5, query.getLimit());
+    }
+
+    @Test
+    void getBookerBookingsAfter_whenStateALL_thenQueryFromCursor() {
+        LocalDateTime start = LocalDateTime.of(2023, 2, 10, 0, 0);
+
+        bookingService.getBookerBookingsAfter("ALL", user.getId(), PageCursor.encode(start, 5L), 10);
+
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.BOOKER, query.getRole());
+        assertEquals(start, query.getAfter().getPosition());
+        assertEquals(5L, query.getAfter().getId());
+        assertEquals(0, query.getOffset());
+        assertEquals(10, query.getLimit());
+    }
+
+    @Test
+    void getOwnerBookingsAfter_whenStatePAST_thenQueryOwnerPastFromCursor() {
+
+        bookingService.getOwnerBookingsAfter("PAST", user.getId(), PageCursor.encode(LocalDateTime.now(), 5L), 10);
+
+        BookingQuery query = captureQuery();
+        assertEquals(BookingQuery.Role.OWNER, query.getRole());
+        assertEquals(BookingState.PAST, query.getState());
+        assertNotNull(query.getAfter());
+    }
+
+    @Test
+    void getOwnerBookingsAfter_whenCursorMalformed_thenBadDataException() {
+
+        assertThrows(BadDataException.class, () -> bookingService.getOwnerBookingsAfter("ALL", 1L, "not-a-cursor", 10));
+    }
+
+    @Test
+    void getOwnerBookingsAfter_whenStateUnknown_thenBadDataException() {
+
+        assertThrows(BadDataException.class, () -> bookingService.getOwnerBookingsAfter("Unknown", 1L, PageCursor.encode(LocalDateTime.now(), 5L), 10));
+    }
 
-        assertEquals(3, savedPage.getPageNumber());
+    private BookingQuery captureQuery() {
+        verify(bookingRepository).findByQuery(queryArgumentCaptor.capture());
+        return queryArgumentCaptor.getValue();
     }
 }
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedItemBookingLockTest {
+    private static final int STRIPES = 16;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StripedItemBookingLock lock;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        lock = new StripedItemBookingLock(STRIPES, meterRegistry);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockUntilCompletion_whenNoTransaction_thenIllegalState() {
+        assertThrows(IllegalStateException.class, () -> lock.lockUntilCompletion(List.of(1L)));
+    }
+
+    @Test
+    void lockUntilCompletion_whenSameItem_thenSecondWaitsForCompletionAndIsTimed() throws Exception {
+        CountDownLatch firstHolds = new CountDownLatch(1);
+        CountDownLatch firstMayComplete = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> inTransaction(() -> {
+            lock.lockUntilCompletion(List.of(1L));
+            firstHolds.countDown();
+            await(firstMayComplete);
+        }));
+        assertTrue(firstHolds.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> inTransaction(() -> lock.lockUntilCompletion(List.of(1L))));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+
+        firstMayComplete.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        Timer timer = meterRegistry.get("shareit.booking.lock.wait").timer();
+        assertEquals(1, timer.count());
+        assertEquals(List.of(Tag.of("mode", "striped")), timer.getId().getTags());
+    }
+
+    @Test
+    void lockUntilCompletion_whenOtherItem_thenNotBlocked() throws Exception {
+        CountDownLatch firstHolds = new CountDownLatch(1);
+        CountDownLatch firstMayComplete = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> inTransaction(() -> {
+            lock.lockUntilCompletion(List.of(1L));
+            firstHolds.countDown();
+            await(firstMayComplete);
+        }));
+        assertTrue(firstHolds.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture.runAsync(() -> inTransaction(() -> lock.lockUntilCompletion(List.of(2L)))).get(5, TimeUnit.SECONDS);
+
+        firstMayComplete.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertTrue(meterRegistry.find("shareit.booking.lock.wait").timers().isEmpty());
+    }
+
+    private static void inTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
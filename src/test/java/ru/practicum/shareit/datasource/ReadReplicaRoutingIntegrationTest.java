@@ -0,0 +1,111 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two local H2 databases stand in for primary and replica. They are not replicated,
+ * so a row's location shows which one served the call. Rows copied to the replica by hand play a replica
+ * that has caught up to them and no further.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "shareit.datasource.routing.enabled=true",
+        "shareit.datasource.routing.replicas[0].url=" + ReadReplicaRoutingIntegrationTest.REPLICA_URL,
+        "shareit.datasource.routing.replicas[0].username=test",
+        "shareit.datasource.routing.replicas[0].password=test",
+        "shareit.datasource.routing.lag-query=",
+        "shareit.datasource.routing.check-interval=1h"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ReadReplicaRoutingIntegrationTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final ReplicaHealthMonitor replicaHealthMonitor;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void initReplica() throws Exception {
+        DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "test", "test");
+        try (Connection connection = replica.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        }
+        new JdbcTemplate(replica).update("insert into users (id, name, email) values (1000000, 'Replica', 'replica@mail.ru')");
+    }
+
+    @AfterEach
+    void restoreReplica() {
+        replicaHealthMonitor.check();
+    }
+
+    @Test
+    void readOnlyCall_whenReplicaHealthy_thenServedByReplica() {
+        List<String> emails = userService.getUsers(0, 100).stream().map(UserDto::getEmail).collect(Collectors.toList());
+
+        assertTrue(emails.contains("replica@mail.ru"));
+    }
+
+    @Test
+    void writeCall_whenInvoke_thenServedByPrimary() {
+        userService.addUser(UserDto.builder().name("Primary").email("primary@mail.ru").build());
+
+        Integer onReplica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "test", "test"))
+                .queryForObject("select count(*) from users where email = 'primary@mail.ru'", Integer.class);
+        assertEquals(0, onReplica);
+        assertFalse(userService.getUsers(0, 100).stream().anyMatch(user -> "primary@mail.ru".equals(user.getEmail())));
+    }
+
+    @Test
+    void cacheableQuery_whenReplicaLags_thenStaleResultNotCached() {
+        UserDto requestor = userService.addUser(UserDto.builder().name("Requestor").email("requestor@mail.ru").build());
+        replicate(requestor);
+        itemRequestService.addItemRequest(ItemRequestDto.builder().description("Нужна дрель").build(), requestor.getId());
+
+        assertTrue(itemRequestService.getItemRequests(requestor.getId()).isEmpty());
+        takeReplicaOutOfService();
+
+        assertEquals(1, itemRequestService.getItemRequests(requestor.getId()).size());
+    }
+
+    @Test
+    void entityLoad_whenReplicaLags_thenStaleEntityNotCached() {
+        UserDto user = userService.addUser(UserDto.builder().name("Old").email("renamed@mail.ru").build());
+        replicate(user);
+        userService.updateUser(UserDto.builder().name("New").build(), user.getId());
+        entityManagerFactory.getCache().evictAll();
+
+        assertEquals("Old", userService.getUserById(user.getId()).getName());
+        takeReplicaOutOfService();
+
+        assertEquals("New", userService.getUserById(user.getId()).getName());
+    }
+
+    private void replicate(UserDto user) {
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "test", "test"))
+                .update("insert into users (id, name, email) values (?, ?, ?)", user.getId(), user.getName(), user.getEmail());
+    }
+
+    private void takeReplicaOutOfService() {
+        replicaHealthMonitor.getReplicas().forEach(replica -> replica.update(false, null));
+    }
+}
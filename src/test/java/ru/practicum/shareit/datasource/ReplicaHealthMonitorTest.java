@@ -0,0 +1,115 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaHealthMonitorTest {
+    private static final String LAG_QUERY = "select lag";
+
+    @AfterEach
+    void resetReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void check_whenLagBelowMax_thenHealthy() throws SQLException {
+        ReplicaPool replica = new ReplicaPool("replica-0", replicaWithLag(1.0));
+
+        monitor(replica).check();
+
+        assertTrue(replica.isHealthy());
+        assertEquals(1.0, replica.getLagSeconds());
+    }
+
+    @Test
+    void check_whenLagAboveMax_thenOutOfService() throws SQLException {
+        ReplicaPool replica = new ReplicaPool("replica-0", replicaWithLag(60.0));
+        ReplicaHealthMonitor monitor = monitor(replica);
+
+        monitor.check();
+
+        assertFalse(replica.isHealthy());
+        assertTrue(monitor.nextHealthy().isEmpty());
+    }
+
+    @Test
+    void check_whenConnectionFails_thenOutOfService() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        ReplicaPool replica = new ReplicaPool("replica-0", dataSource);
+
+        monitor(replica).check();
+
+        assertFalse(replica.isHealthy());
+    }
+
+    @Test
+    void nextHealthy_whenTwoHealthy_thenRoundRobin() throws SQLException {
+        ReplicaPool first = new ReplicaPool("replica-0", replicaWithLag(0.0));
+        ReplicaPool second = new ReplicaPool("replica-1", replicaWithLag(0.0));
+        ReplicaHealthMonitor monitor = monitor(first, second);
+        monitor.check();
+
+        assertNotEquals(monitor.nextHealthy().orElseThrow(), monitor.nextHealthy().orElseThrow());
+    }
+
+    @Test
+    void determineCurrentLookupKey_whenReadOnly_thenReplicaElsePrimary() throws SQLException {
+        ReplicaPool replica = new ReplicaPool("replica-0", replicaWithLag(0.0));
+        ReplicaHealthMonitor monitor = monitor(replica);
+        monitor.check();
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(mock(DataSource.class), monitor);
+
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica-0", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void determineCurrentLookupKey_whenNoHealthyReplica_thenPrimary() throws SQLException {
+        ReplicaPool replica = new ReplicaPool("replica-0", replicaWithLag(60.0));
+        ReplicaHealthMonitor monitor = monitor(replica);
+        monitor.check();
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(mock(DataSource.class), monitor);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        routing.bindTo(meterRegistry);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+        assertEquals(1.0, meterRegistry.get("shareit.datasource.route").tag("target", "fallback").counter().count());
+    }
+
+    private ReplicaHealthMonitor monitor(ReplicaPool... replicas) {
+        return new ReplicaHealthMonitor(List.of(replicas), Duration.ofSeconds(10), LAG_QUERY);
+    }
+
+    private DataSource replicaWithLag(double lag) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lag);
+        return dataSource;
+    }
+}
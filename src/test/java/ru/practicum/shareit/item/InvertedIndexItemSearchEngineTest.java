@@ -0,0 +1,186 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvertedIndexItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private InvertedIndexItemSearchEngine searchEngine;
+
+    private Item smallScrewdriver;
+    private Item bigScrewdriver;
+    private Item ironThing;
+    private Map<Long, Item> storage;
+    private final Pageable pageable = PageRequest.of(0, 10);
+
+    @BeforeEach
+    void init() {
+        smallScrewdriver = Item.builder().id(1L).name("Отвертка малеНькая").description("Супер откручивалка").available(true).build();
+        bigScrewdriver = Item.builder().id(2L).name("Супер Отвертка большая").description("Откручивалка").available(true).build();
+        ironThing = Item.builder().id(3L).name("Железяка").description("Железяка").available(false).build();
+        storage = new HashMap<>(Map.of(1L, smallScrewdriver, 2L, bigScrewdriver, 3L, ironThing));
+        searchEngine.index(smallScrewdriver);
+        searchEngine.index(bigScrewdriver);
+        searchEngine.index(ironThing);
+    }
+
+    private void mockStorage() {
+        when(itemRepository.findAllById(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(storage::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    void search_whenSearchAnyCase_thenReturnItem() {
+        mockStorage();
+
+        List<Item> foundItems = searchEngine.search("маленькая", pageable);
+
+        assertEquals(List.of(smallScrewdriver), foundItems);
+    }
+
+    @Test
+    void search_whenSearchNameAndDescription_thenReturnItemsInIdOrder() {
+        mockStorage();
+
+        List<Item> foundItems = searchEngine.search("супер", pageable);
+
+        assertEquals(List.of(smallScrewdriver, bigScrewdriver), foundItems);
+    }
+
+    @Test
+    void search_whenSearchShorterThanTrigram_thenRunLikeQuery() {
+        when(itemRepository.searchItems("ая", pageable)).thenReturn(List.of(smallScrewdriver, bigScrewdriver));
+
+        List<Item> foundItems = searchEngine.search("ая", pageable);
+
+        assertEquals(List.of(smallScrewdriver, bigScrewdriver), foundItems);
+        verify(itemRepository, never()).findAllById(Mockito.anyIterable());
+    }
+
+    @Test
+    void search_whenSearchNotAvailableItem_thenNotReturnItem() {
+        List<Item> foundItems = searchEngine.search("Железяка", pageable);
+
+        assertTrue(foundItems.isEmpty());
+    }
+
+    @Test
+    void search_whenItemUpdatedToUnavailable_thenNotReturnItem() {
+        mockStorage();
+        smallScrewdriver.setAvailable(false);
+        searchEngine.index(smallScrewdriver);
+
+        List<Item> foundItems = searchEngine.search("Отвертка", pageable);
+
+        assertEquals(List.of(bigScrewdriver), foundItems);
+    }
+
+    @Test
+    void search_whenItemRenamed_thenFoundOnlyByNewText() {
+        mockStorage();
+        smallScrewdriver.setName("Шуруповерт");
+        smallScrewdriver.setDescription("Закручивалка");
+        searchEngine.index(smallScrewdriver);
+
+        assertEquals(List.of(bigScrewdriver), searchEngine.search("Откручивалка", pageable));
+        assertEquals(List.of(smallScrewdriver), searchEngine.search("шуруп", pageable));
+    }
+
+    @Test
+    void search_whenPageRequested_thenSkipOffset() {
+        mockStorage();
+
+        List<Item> foundItems = searchEngine.search("Отвертка", PageRequest.of(1, 1));
+
+        assertEquals(List.of(bigScrewdriver), foundItems);
+    }
+
+    @Test
+    void search_whenStaleEntriesFillPage_thenPageRefilled() {
+        searchEngine.index(Item.builder().id(0L).name("Отвертка удаленная").description("Нет в базе").available(true).build());
+        searchEngine.index(Item.builder().id(-1L).name("Отвертка откатанная").description("Нет в базе").available(true).build());
+        mockStorage();
+
+        List<Item> foundItems = searchEngine.search("Отвертка", PageRequest.of(0, 2));
+
+        assertEquals(List.of(smallScrewdriver, bigScrewdriver), foundItems);
+    }
+
+    @Test
+    void search_whenDatabaseBehindIndex_thenItemLeftOutButKeptInIndex() {
+        Item drill = Item.builder().id(4L).name("Дрель").description("Ударная").available(true).build();
+        searchEngine.index(drill);
+        mockStorage();
+
+        assertTrue(searchEngine.search("дрель", pageable).isEmpty());
+        storage.put(4L, drill);
+
+        assertEquals(List.of(drill), searchEngine.search("дрель", pageable));
+    }
+
+    @Test
+    void search_whenItemRemoved_thenNotReturned() {
+        mockStorage();
+        searchEngine.remove(smallScrewdriver.getId());
+
+        assertEquals(List.of(bigScrewdriver), searchEngine.search("Отвертка", pageable));
+    }
+
+    @Test
+    void search_whenManyItemsIndexedAndRemovedOutOfOrder_thenReturnRemainingInIdOrder() {
+        List<Long> ids = LongStream.rangeClosed(10, 609).boxed().collect(Collectors.toList());
+        Collections.shuffle(ids, new Random(42));
+        for (Long id : ids) {
+            Item lamp = Item.builder().id(id).name("Лампа " + id).description("Настольная").available(true).build();
+            storage.put(id, lamp);
+            searchEngine.index(lamp);
+        }
+        ids.stream().filter(id -> id % 3 == 0).forEach(searchEngine::remove);
+        mockStorage();
+
+        List<Long> found = searchEngine.search("лампа", PageRequest.of(0, 600)).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(LongStream.rangeClosed(10, 609).filter(id -> id % 3 != 0).boxed().collect(Collectors.toList()), found);
+    }
+
+    @Test
+    void seed_whenInvoke_thenIndexAvailableItemsInBatches() {
+        InvertedIndexItemSearchEngine engine = new InvertedIndexItemSearchEngine(itemRepository);
+        when(itemRepository.findAvailableAfter(Mockito.eq(0L), Mockito.any())).thenReturn(List.of(smallScrewdriver, bigScrewdriver));
+        mockStorage();
+
+        engine.seed();
+
+        assertEquals(List.of(smallScrewdriver, bigScrewdriver), engine.search("откр", pageable));
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.request.ItemRequestService;
@@ -131,6 +132,19 @@ class ItemControllerTest {
         verify(itemService).updateItem(itemDto, 1L, itemDto.getId());
     }
 
+    @SneakyThrows
+    @Test
+    void updateItem_whenConcurrentUpdateWins_thenConflict() {
+        when(itemService.updateItem(itemDto, 1L, itemDto.getId()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, itemDto.getId()));
+
+        mockMvc.perform(patch("/items/{itemId}", itemDto.getId())
+                        .contentType("application/json")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(itemDto)))
+                .andExpect(status().isConflict());
+    }
+
     @SneakyThrows
     @Test
     void getItem_whenInvoke_thenReturnItemDto() {
@@ -245,4 +259,31 @@ class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(commentDto)))
                 .andExpect(status().isBadRequest());
     }
+
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenInvoke_thenReturnAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 10, 12, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 11, 12, 0, 0);
+        ItemAvailabilityDto availabilityDto = ItemAvailabilityDto.builder()
+                .itemId(itemDto.getId())
+                .from(from)
+                .to(to)
+                .free(true)
+                .nextFreeSlot(from)
+                .build();
+        when(itemService.getItemAvailability(1L, itemDto.getId(), from, to)).thenReturn(availabilityDto);
+
+        String result = mockMvc.perform(get("/items/{itemId}/availability", itemDto.getId())
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2030-01-10T12:00:00")
+                        .param("to", "2030-01-11T12:00:00"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(availabilityDto), result);
+        verify(itemService).getItemAvailability(1L, itemDto.getId(), from, to);
+    }
 }
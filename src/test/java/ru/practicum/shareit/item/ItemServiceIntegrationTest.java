@@ -1,24 +1,30 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@Transactional
+/**
+ * Not transactional on purpose: items reach the search index only once their transaction commits.
+ */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "db.name=test")
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class ItemServiceIntegrationTest {
     private final UserService userService;
     private final ItemService itemService;
+    private final PlatformTransactionManager transactionManager;
     private UserDto user;
 
     @BeforeEach
@@ -57,6 +63,11 @@ class ItemServiceIntegrationTest {
 
     }
 
+    @AfterEach
+    void cleanUp() {
+        userService.deleteUser(user.getId());
+    }
+
 
     @Test
     void searchItems_whenSearchAnyCase_thenReturnItem() {
@@ -76,4 +87,19 @@ class ItemServiceIntegrationTest {
         List<ItemDto> foundItems = itemService.searchItems(user.getId(), "Железяка", 0, 10);
         assertEquals(foundItems.size(), 0);
     }
+
+    @Test
+    void searchItems_whenSaveRolledBack_thenIndexUnchanged() {
+        Long itemId = itemService.searchItems(user.getId(), "маленькая", 0, 10).get(0).getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            itemService.addItem(ItemDto.builder().name("Кувалда").description("Тяжелая").available(true).build(), user.getId());
+            itemService.updateItem(ItemDto.builder().name("Молоток").build(), user.getId(), itemId);
+            status.setRollbackOnly();
+        });
+
+        assertTrue(itemService.searchItems(user.getId(), "Кувалда", 0, 10).isEmpty());
+        assertTrue(itemService.searchItems(user.getId(), "Молоток", 0, 10).isEmpty());
+        assertEquals(1, itemService.searchItems(user.getId(), "маленькая", 0, 10).size());
+    }
 }
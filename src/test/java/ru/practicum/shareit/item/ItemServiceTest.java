@@ -6,15 +6,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.*;
+import ru.practicum.shareit.exception.BadDataException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserExistenceGuard;
 import ru.practicum.shareit.user.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,11 +35,17 @@ class ItemServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceGuard userExistenceGuard;
+    @Mock
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
     @InjectMocks
     private ItemService itemService;
     @Captor
@@ -129,11 +140,12 @@ class ItemServiceTest {
 
         assertEquals(itemDto, actualItemDto);
         verify(itemRepository).save(Mockito.any());
+        verify(itemSearchEngine).index(Mockito.any());
     }
 
     @Test
     void updateItem_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> itemService.updateItem(itemDto, user.getId(), itemDto.getId()));
         verify(itemRepository, never()).save(ItemMapper.itemDtoToItem(itemDto, user, null));
@@ -141,7 +153,6 @@ class ItemServiceTest {
 
     @Test
     void updateItem_whenItemNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemService.updateItem(itemDto, user.getId(), itemDto.getId()));
@@ -150,7 +161,6 @@ class ItemServiceTest {
 
     @Test
     void updateItem_whenUserNotHaveRightsToEdit_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
 
         assertThrows(NotFoundException.class, () -> itemService.updateItem(itemDto, 99L, itemDto.getId()));
@@ -159,7 +169,6 @@ class ItemServiceTest {
 
     @Test
     void updateItem_whenUserAndItemFound_thenUpdateItem() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
         when(itemRepository.save(Mockito.any())).thenReturn(ItemMapper.itemDtoToItem(itemDto, user, ItemRequestMapper.itemRequestToItemRequestDto(itemRequest)));
         ItemDto newItemDto = ItemDto.builder().id(2L).name("Железяка").description("Описание2").owner(UserDto.builder().id(33L).build()).available(false).requestId(6L).build();
@@ -176,9 +185,25 @@ class ItemServiceTest {
         assertNotEquals(savedItem.getRequest().getId(), newItemDto.getRequestId());
     }
 
+    @Test
+    void updateItem_whenAttemptRolledBack_thenNotIndexed() {
+        when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.save(Mockito.any())).thenReturn(item);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.updateItem(ItemDto.builder().name("Железяка").build(), user.getId(), item.getId());
+            verify(itemSearchEngine, never()).index(Mockito.any());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(itemSearchEngine, never()).index(Mockito.any());
+    }
+
     @Test
     void getItem_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> itemService.getItem(user.getId(), itemDto.getId()));
         verify(itemRepository, never()).save(ItemMapper.itemDtoToItem(itemDto, user, null));
@@ -186,7 +211,6 @@ class ItemServiceTest {
 
     @Test
     void getItem_whenItemNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemService.getItem(user.getId(), itemDto.getId()));
@@ -195,7 +219,6 @@ class ItemServiceTest {
 
     @Test
     void getItem_whenInvoke_returnedItemDto() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
         when(bookingRepository.getItemLastBooking(Mockito.anyLong(), Mockito.any())).thenReturn(Optional.of(booking));
         when(bookingRepository.getItemNextBooking(Mockito.anyLong(), Mockito.any())).thenReturn(Optional.of(booking));
@@ -213,7 +236,7 @@ class ItemServiceTest {
 
     @Test
     void getItems_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> itemService.getItems(user.getId(), 0, 10));
         verify(itemRepository, never()).searchItems(Mockito.any(), Mockito.any());
@@ -221,30 +244,43 @@ class ItemServiceTest {
 
     @Test
     void getItems_whenInvoke_thenReturnListItemsDto() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRepository.findByOwnerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(item));
-        when(commentRepository.findByItemId(Mockito.anyLong())).thenReturn(List.of(comment));
-        when(bookingRepository.getItemLastBooking(Mockito.anyLong(), Mockito.any())).thenReturn(Optional.of(booking));
-        when(bookingRepository.getItemNextBooking(Mockito.anyLong(), Mockito.any())).thenReturn(Optional.of(booking));
+        when(commentRepository.findByItemIdIn(Mockito.anyCollection())).thenReturn(List.of(comment));
+        when(bookingRepository.getItemsLastAndNextBookings(Mockito.anyCollection(), Mockito.any())).thenReturn(List.of(booking));
 
         List<ItemDto> actualItemDtoList = itemService.getItems(user.getId(), 0, 10);
 
         assertEquals(actualItemDtoList.size(), 1);
         assertEquals(actualItemDtoList.get(0).getId(), item.getId());
+        assertEquals(actualItemDtoList.get(0).getLastBooking().getId(), booking.getId());
+        assertNull(actualItemDtoList.get(0).getNextBooking());
+        assertEquals(actualItemDtoList.get(0).getComments().size(), 1);
+        verify(commentRepository, never()).findByItemId(Mockito.anyLong());
+        verify(bookingRepository, never()).getItemLastBooking(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void getItems_whenUserHasNoItems_thenNotQueryBookingsAndComments() {
+        when(itemRepository.findByOwnerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of());
+
+        List<ItemDto> actualItemDtoList = itemService.getItems(user.getId(), 0, 10);
+
+        assertTrue(actualItemDtoList.isEmpty());
+        verify(commentRepository, never()).findByItemIdIn(Mockito.anyCollection());
+        verify(bookingRepository, never()).getItemsLastAndNextBookings(Mockito.anyCollection(), Mockito.any());
     }
 
     @Test
     void searchItems_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> itemService.searchItems(user.getId(), "текст", 0, 10));
-        verify(itemRepository, never()).searchItems(Mockito.any(), Mockito.any());
+        verify(itemSearchEngine, never()).search(Mockito.any(), Mockito.any());
     }
 
     @Test
     void searchItems_whenInvoke_thenReturnListItemsDto() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.searchItems(Mockito.anyString(), Mockito.any())).thenReturn(List.of(item));
+        when(itemSearchEngine.search(Mockito.anyString(), Mockito.any())).thenReturn(List.of(item));
 
         List<ItemDto> actualItemDtoList = itemService.searchItems(user.getId(), "текст", 0, 10);
 
@@ -254,17 +290,51 @@ class ItemServiceTest {
 
     @Test
     void convertToPageSettings_whenInvokeStart13_thenInvokeWithPage3() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.searchItems(Mockito.anyString(), Mockito.any())).thenReturn(List.of(item));
+        when(itemSearchEngine.search(Mockito.anyString(), Mockito.any())).thenReturn(List.of(item));
 
         List<ItemDto> actualItemDtoList = itemService.searchItems(user.getId(), "текст", 13, 5);
 
-        verify(itemRepository).searchItems(Mockito.anyString(), pageArgumentCaptor.capture());
+        verify(itemSearchEngine).search(Mockito.anyString(), pageArgumentCaptor.capture());
         Pageable savedPage = pageArgumentCaptor.getValue();
 
         assertEquals(3, savedPage.getPageNumber());
     }
 
+    @Test
+    void getItemAvailability_whenToBeforeFrom_thenBadDataException() {
+        when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        LocalDateTime from = LocalDateTime.of(2030, 1, 10, 0, 0);
+
+        assertThrows(BadDataException.class, () -> itemService.getItemAvailability(user.getId(), item.getId(), from, from.minusDays(1)));
+        verify(bookingAvailabilityIndex, never()).isFree(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getItemAvailability_whenItemBooked_thenReturnNextFreeSlot() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 10, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        when(bookingAvailabilityIndex.isFree(item.getId(), from, to)).thenReturn(false);
+        when(bookingAvailabilityIndex.nextFreeSlot(item.getId(), from, Duration.ofDays(1))).thenReturn(from.plusDays(3));
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(user.getId(), item.getId(), from, to);
+
+        assertFalse(availability.getFree());
+        assertEquals(from.plusDays(3), availability.getNextFreeSlot());
+    }
+
+    @Test
+    void getItemAvailability_whenItemNotAvailable_thenNotFree() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 10, 0, 0);
+        item.setAvailable(false);
+        when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(user.getId(), item.getId(), from, from.plusDays(1));
+
+        assertFalse(availability.getFree());
+        assertNull(availability.getNextFreeSlot());
+    }
+
     @Test
     void addComment_whenUserNotFound_thenNotFoundException() {
         when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class MetricsIntegrationTest {
+
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void serviceCall_whenInvoke_thenTimedWithClassAndMethod() {
+        userService.addUser(UserDto.builder().email("metrics@mail.ru").name("Misha").build());
+
+        Timer timer = meterRegistry.find(MetricsConfig.SERVICE_TIMER)
+                .tags("class", UserService.class.getName(), "method", "addUser", "exception", "none")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() > 0);
+    }
+
+    @Test
+    void serviceCall_whenThrows_thenTimedWithException() {
+        assertThrows(NotFoundException.class, () -> userService.getUserById(-1L));
+
+        assertNotNull(meterRegistry.find(MetricsConfig.SERVICE_TIMER)
+                .tags("method", "getUserById", "exception", "NotFoundException")
+                .timer());
+    }
+
+    @Test
+    void repositoryCall_whenInvoke_thenTimedAndRowsRecorded() {
+        UserDto user = userService.addUser(UserDto.builder().email("rows@mail.ru").name("Misha").build());
+        userService.getUsers(0, 10);
+
+        assertNotNull(meterRegistry.find(MetricsConfig.REPOSITORY_TIMER)
+                .tags("repository", "UserRepository", "method", "save")
+                .timer());
+        assertTrue(meterRegistry.find(MetricsConfig.REPOSITORY_ROWS)
+                .tags("repository", "UserRepository", "method", "findPage")
+                .summary()
+                .max() >= 1);
+        assertNotNull(user.getId());
+    }
+
+    @Test
+    void repositoryStream_whenConsumed_thenRowsCountedOnClose() {
+        userService.addUser(UserDto.builder().email("stream-one@mail.ru").name("Misha").build());
+        userService.addUser(UserDto.builder().email("stream-two@mail.ru").name("Misha").build());
+        List<UserDto> users = new ArrayList<>();
+
+        userService.streamUsers(users::add);
+
+        assertEquals(users.size(), meterRegistry.find(MetricsConfig.REPOSITORY_ROWS)
+                .tags("repository", "UserRepository", "method", "streamAll")
+                .summary()
+                .max());
+        assertTrue(users.size() >= 2);
+    }
+
+    @Test
+    void bookingQuery_whenInvoke_thenTaggedWithRoleAndState() {
+        UserDto user = userService.addUser(UserDto.builder().email("variant@mail.ru").name("Misha").build());
+
+        bookingService.getOwnerBookings("PAST", user.getId(), 0, 10);
+
+        assertNotNull(meterRegistry.find(MetricsConfig.REPOSITORY_TIMER)
+                .tags("repository", "BookingRepository", "method", "findByQuery", "variant", "OWNER_PAST")
+                .timer());
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.BadDataException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decode_whenEncoded_thenReturnSamePositionAndId() {
+        LocalDateTime position = LocalDateTime.of(2023, 2, 10, 12, 30, 15, 123456000);
+
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(position, 42L));
+
+        assertEquals(position, cursor.getPosition());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void decode_whenMalformed_thenBadDataException() {
+        assertThrows(BadDataException.class, () -> PageCursor.decode("%%%"));
+        assertThrows(BadDataException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    @Test
+    void decodeId_whenEncoded_thenReturnSameId() {
+        assertEquals(42L, PageCursor.decodeId(PageCursor.encode(42L)));
+    }
+
+    @Test
+    void decodeId_whenMalformedOrRawId_thenBadDataException() {
+        assertThrows(BadDataException.class, () -> PageCursor.decodeId("%%%"));
+        assertThrows(BadDataException.class, () -> PageCursor.decodeId("7"));
+        assertThrows(BadDataException.class, () -> PageCursor.decodeId(PageCursor.encode(LocalDateTime.now(), 42L)));
+    }
+}
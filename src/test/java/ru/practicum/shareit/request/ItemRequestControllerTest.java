@@ -8,8 +8,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.UserService;
 
 import java.nio.charset.StandardCharsets;
@@ -22,6 +24,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
@@ -146,4 +149,51 @@ class ItemRequestControllerTest {
 
         verify(itemRequestService).getItemPageableRequests(1L, 0, 10);
     }
+
+    @SneakyThrows
+    @Test
+    void getItemPageableRequests_whenInvokeWithAfter_thenInvokeSeekAndReturnNextCursor() {
+        String after = PageCursor.encode(LocalDateTime.of(2023, 4, 10, 0, 0), 9L);
+        when(itemRequestService.getItemPageableRequestsAfter(1L, after, 1)).thenReturn(List.of(itemRequestDto));
+
+        String nextCursor = mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", after)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+        verify(itemRequestService).getItemPageableRequestsAfter(1L, after, 1);
+        assertEquals(PageCursor.encode(itemRequestDto.getCreated(), itemRequestDto.getId()), nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemPageableRequests_whenPageNotFull_thenNoNextCursor() {
+        when(itemRequestService.getItemPageableRequests(1L, 0, 10)).thenReturn(List.of(itemRequestDto));
+
+        String nextCursor = mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+        assertNull(nextCursor);
+    }
+
+    @SneakyThrows
+    @Test
+    void streamItemRequests_whenInvoke_thenAsyncStartedWithLastEventId() {
+        when(itemRequestService.streamItemRequests(1L, "7")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/requests/stream")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted());
+
+        verify(itemRequestService).streamItemRequests(1L, "7");
+    }
 }
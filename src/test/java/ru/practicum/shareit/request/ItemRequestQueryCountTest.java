@@ -0,0 +1,106 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the number of SQL statements per request list endpoint: the requests, then all their items
+ * with owners in one query, however many requests and answers there are.
+ */
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemRequestQueryCountTest {
+
+    private final ItemRequestService itemRequestService;
+    private final UserExistenceGuard userExistenceGuard;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getItemRequests_whenRequestsGrow_thenTwoStatements() {
+        User small = seed("small", 1);
+        User large = seed("large", 10);
+
+        assertEquals(2, statementsFor(() -> itemRequestService.getItemRequests(small.getId())));
+        assertEquals(2, statementsFor(() -> itemRequestService.getItemRequests(large.getId())));
+    }
+
+    @Test
+    void getItemRequests_whenRequestsGrow_thenEveryAnswerMapped() {
+        User requestor = seed("mapped", 10);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemRequestDto> requests = itemRequestService.getItemRequests(requestor.getId());
+
+        assertEquals(10, requests.size());
+        requests.forEach(request -> {
+            assertEquals(3, request.getItems().size());
+            request.getItems().forEach(item -> assertEquals("owner", item.getOwner().getName()));
+        });
+    }
+
+    @Test
+    void getItemRequest_whenInvoke_thenTwoStatements() {
+        User requestor = seed("single", 1);
+        Long requestId = itemRequestService.getItemRequests(requestor.getId()).get(0).getId();
+
+        assertEquals(2, statementsFor(() -> itemRequestService.getItemRequest(requestor.getId(), requestId)));
+    }
+
+    private long statementsFor(Supplier<Object> call) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User seed(String name, int requests) {
+        User requestor = persist(User.builder().name("requestor").email(name + "-requestor@mail.ru").build());
+        userExistenceGuard.requireExists(requestor.getId());
+        LocalDateTime created = LocalDateTime.now().minusDays(requests);
+        for (int i = 0; i < requests; i++) {
+            ItemRequest request = persist(ItemRequest.builder()
+                    .description("Нужна дрель " + i)
+                    .requestor(requestor)
+                    .created(created.plusDays(i))
+                    .build());
+            for (int j = 0; j < 3; j++) {
+                User owner = persist(User.builder().name("owner").email(name + "-owner-" + i + "-" + j + "@mail.ru").build());
+                persist(Item.builder()
+                        .name("Дрель " + i + "-" + j)
+                        .description("Простая дрель")
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+        return requestor;
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
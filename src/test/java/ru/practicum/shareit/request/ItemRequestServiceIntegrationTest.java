@@ -7,13 +7,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "db.name=test")
@@ -76,5 +79,31 @@ public class ItemRequestServiceIntegrationTest {
 
     }
 
+    @Test
+    void getItemPageableRequests_whenOwnAndOthersRequests_thenOnlyOthersNewestFirst() {
+        UserDto other = userService.addUser(UserDto.builder()
+                .email("other@mail.ru")
+                .name("Vasia")
+                .build());
+
+        List<ItemRequestDto> feed = itemRequestService.getItemPageableRequests(other.getId(), 0, 10);
+
+        assertEquals(2, feed.size());
+        assertEquals(savedItemRequest1.getId(), feed.get(1).getId());
+        assertTrue(itemRequestService.getItemPageableRequests(savedUser.getId(), 0, 10).isEmpty());
+    }
 
+    @Test
+    void getItemPageableRequestsAfter_whenCursorFromFirstPage_thenNextPage() {
+        UserDto other = userService.addUser(UserDto.builder()
+                .email("other@mail.ru")
+                .name("Vasia")
+                .build());
+        ItemRequestDto first = itemRequestService.getItemPageableRequests(other.getId(), 0, 1).get(0);
+
+        List<ItemRequestDto> next = itemRequestService.getItemPageableRequestsAfter(other.getId(), PageCursor.encode(first.getCreated(), first.getId()), 10);
+
+        assertEquals(1, next.size());
+        assertEquals(savedItemRequest1.getId(), next.get(0).getId());
+    }
 }
@@ -6,8 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.exception.BadDataException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserExistenceGuard;
 import ru.practicum.shareit.user.UserRepository;
 
 import java.time.LocalDateTime;
@@ -24,7 +30,13 @@ class ItemRequestServiceTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemRequestStream itemRequestStream;
+    @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
     @InjectMocks
     private ItemRequestService itemRequestService;
     @Captor
@@ -77,18 +89,33 @@ class ItemRequestServiceTest {
 
         assertNotNull(newItemRequestDto.getCreated());
         assertEquals(newItemRequestDto.getId(), itemRequest.getId());
+        verify(itemRequestStream).publish(newItemRequestDto);
+    }
+
+    @Test
+    void streamItemRequests_whenUserNotFound_thenNotFoundException() {
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
+
+        assertThrows(NotFoundException.class, () -> itemRequestService.streamItemRequests(user.getId(), null));
+        verify(itemRequestStream, never()).subscribe(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    void streamItemRequests_whenInvoke_thenSubscribedWithLastEventId() {
+        itemRequestService.streamItemRequests(user.getId(), "7");
+
+        verify(itemRequestStream).subscribe(user.getId(), "7");
     }
 
     @Test
     void getItemRequests_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getItemRequests(user.getId()));
     }
 
     @Test
     void getItemRequests_whenInvoke_thenReturnedItemRequestDtoList() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findByRequestorIdOrderByIdDesc(user.getId())).thenReturn(List.of(itemRequest));
 
         List<ItemRequestDto> newItemRequestDtoList = itemRequestService.getItemRequests(user.getId());
@@ -97,9 +124,33 @@ class ItemRequestServiceTest {
         assertEquals(newItemRequestDtoList.get(0).getId(), itemRequest.getId());
     }
 
+    @Test
+    void getItemRequests_whenItemsAnswered_thenItemsLoadedWithOneQuery() {
+        ItemRequest otherRequest = ItemRequest.builder()
+                .id(6L)
+                .requestor(user)
+                .description("Другой запрос")
+                .build();
+        Item item = Item.builder()
+                .id(3L)
+                .name("Дрель")
+                .owner(user)
+                .available(true)
+                .request(itemRequest)
+                .build();
+        when(itemRequestRepository.findByRequestorIdOrderByIdDesc(user.getId())).thenReturn(List.of(otherRequest, itemRequest));
+        when(itemRepository.findWithOwnerByRequestIdIn(List.of(6L, 5L))).thenReturn(List.of(item));
+
+        List<ItemRequestDto> newItemRequestDtoList = itemRequestService.getItemRequests(user.getId());
+
+        assertTrue(newItemRequestDtoList.get(0).getItems().isEmpty());
+        assertEquals(1, newItemRequestDtoList.get(1).getItems().size());
+        assertEquals(item.getId(), newItemRequestDtoList.get(1).getItems().get(0).getId());
+        verify(itemRepository, times(1)).findWithOwnerByRequestIdIn(Mockito.any());
+    }
+
     @Test
     void getItemRequest_whenInvoke_thenReturnedItemRequestDto() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(itemRequest));
 
         ItemRequestDto newItemRequestDto = itemRequestService.getItemRequest(user.getId(), itemRequest.getId());
@@ -109,14 +160,13 @@ class ItemRequestServiceTest {
 
     @Test
     void getItemRequest_whenUserNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("User with ID 1 not found")).when(userExistenceGuard).requireExists(Mockito.anyLong());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getItemRequest(user.getId(), itemRequest.getId()));
     }
 
     @Test
     void getItemRequest_whenItemRequestNotFound_thenNotFoundException() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getItemRequest(user.getId(), itemRequest.getId()));
@@ -124,8 +174,7 @@ class ItemRequestServiceTest {
 
     @Test
     void getItemPageableRequests_whenInvoke_thenReturnedItemRequestDtoList() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findByIdNot(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(itemRequest));
+        when(itemRequestRepository.findFeed(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(itemRequest));
 
         List<ItemRequestDto> newItemRequestDtoList = itemRequestService.getItemPageableRequests(user.getId(), 0, 10);
 
@@ -135,13 +184,32 @@ class ItemRequestServiceTest {
 
     @Test
     void convertToPageSettings_whenInvokeStart13_thenInvokeWithPage3() {
-        when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
 
         itemRequestService.getItemPageableRequests(user.getId(), 13, 5);
 
-        verify(itemRequestRepository).findByIdNot(Mockito.anyLong(), pageArgumentCaptor.capture());
+        verify(itemRequestRepository).findFeed(Mockito.anyLong(), pageArgumentCaptor.capture());
         Pageable savedPage = pageArgumentCaptor.getValue();
 
         assertEquals(3, savedPage.getPageNumber());
+        assertEquals(Sort.by(Sort.Direction.DESC, "created", "id"), savedPage.getSort());
+    }
+
+    @Test
+    void getItemPageableRequestsAfter_whenInvoke_thenSeekFromCursor() {
+        LocalDateTime created = LocalDateTime.of(2023, 3, 10, 0, 0);
+        when(itemRequestRepository.findFeedAfter(Mockito.eq(user.getId()), Mockito.eq(created), Mockito.eq(7L), Mockito.any()))
+                .thenReturn(List.of(itemRequest));
+
+        List<ItemRequestDto> newItemRequestDtoList = itemRequestService.getItemPageableRequestsAfter(user.getId(), PageCursor.encode(created, 7L), 5);
+
+        assertEquals(itemRequest.getId(), newItemRequestDtoList.get(0).getId());
+        verify(itemRequestRepository).findFeedAfter(Mockito.eq(user.getId()), Mockito.eq(created), Mockito.eq(7L), pageArgumentCaptor.capture());
+        assertEquals(0, pageArgumentCaptor.getValue().getPageNumber());
+        assertEquals(5, pageArgumentCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void getItemPageableRequestsAfter_whenCursorInvalid_thenBadDataException() {
+        assertThrows(BadDataException.class, () -> itemRequestService.getItemPageableRequestsAfter(user.getId(), "not-a-cursor", 5));
     }
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Not transactional on purpose: requests reach subscribers only once their transaction commits.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemRequestStreamIntegrationTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final MockMvc mockMvc;
+    private final UserService userService;
+    private final ItemRequestService itemRequestService;
+
+    private UserDto owner;
+    private UserDto requestor;
+
+    @BeforeEach
+    void init() {
+        owner = userService.addUser(UserDto.builder().name("Misha").email("stream-owner@mail.ru").build());
+        requestor = userService.addUser(UserDto.builder().name("Vasia").email("stream-requestor@mail.ru").build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userService.deleteUser(owner.getId());
+        userService.deleteUser(requestor.getId());
+    }
+
+    @Test
+    @SneakyThrows
+    void addItemRequest_whenSubscribed_thenPushedToOthersOnly() {
+        MockHttpServletResponse ownerStream = subscribe(owner);
+        MockHttpServletResponse requestorStream = subscribe(requestor);
+
+        ItemRequestDto created = itemRequestService.addItemRequest(ItemRequestDto.builder().description("Нужна дрель").build(), requestor.getId());
+
+        assertTrue(awaitContent(ownerStream, "\"id\":" + created.getId()), ownerStream.getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(ownerStream.getContentAsString(StandardCharsets.UTF_8).contains("event:request"));
+        assertFalse(requestorStream.getContentAsString(StandardCharsets.UTF_8).contains("Нужна дрель"));
+    }
+
+    @SneakyThrows
+    private MockHttpServletResponse subscribe(UserDto user) {
+        return mockMvc.perform(get("/requests/stream").header(USER_HEADER, user.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    @SneakyThrows
+    private boolean awaitContent(MockHttpServletResponse response, String expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (response.getContentAsString(StandardCharsets.UTF_8).contains(expected)) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,249 @@
+package ru.practicum.shareit.sse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseBroadcasterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private SseProperties properties;
+    private List<Runnable> pendingSends;
+    private RecordingEmitter emitter;
+    private final List<SseSenderPool> pools = new ArrayList<>();
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new SseProperties();
+        properties.setBufferSize(3);
+        properties.setHistorySize(5);
+        properties.setHeartbeat(Duration.ZERO);
+        pendingSends = new ArrayList<>();
+        emitter = new RecordingEmitter();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        pools.forEach(SseSenderPool::shutdownNow);
+    }
+
+    @Test
+    void publish_whenSubscribed_thenSentWithIdAndName() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.subscribe(null, event -> true);
+
+        broadcaster.publish("a");
+        broadcaster.publish("b");
+
+        assertEquals(List.of("retry:3000\n:connected\n\n", "id:1\nevent:test\ndata:a\n\n", "id:2\nevent:test\ndata:b\n\n"), emitter.sent);
+    }
+
+    @Test
+    void heartbeat_whenIdle_thenCommentSent() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.subscribe(null, event -> true);
+
+        broadcaster.heartbeat();
+
+        assertEquals(":heartbeat\n\n", emitter.sent.get(emitter.sent.size() - 1));
+    }
+
+    @Test
+    void heartbeat_whenConnectionBroken_thenSubscriberRemoved() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.subscribe(null, event -> true);
+        emitter.failing = true;
+
+        broadcaster.heartbeat();
+
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void publish_whenFilterRejects_thenNotSent() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.subscribe(null, event -> !event.equals("own"));
+
+        broadcaster.publish("own");
+        broadcaster.publish("other");
+
+        assertEquals(List.of("other"), emitter.payloads());
+    }
+
+    @Test
+    void publish_whenSubscriberFallsBehind_thenOldestDropped() {
+        SseBroadcaster<String> broadcaster = broadcaster(pendingSends::add);
+        broadcaster.subscribe(null, event -> true);
+
+        for (String payload : List.of("a", "b", "c", "d", "e")) {
+            broadcaster.publish(payload);
+        }
+        pendingSends.forEach(Runnable::run);
+
+        assertEquals(List.of("c", "d", "e"), emitter.payloads());
+        assertEquals(2, meterRegistry.get("shareit.sse.dropped").tag("stream", "test").counter().count());
+    }
+
+    @Test
+    void subscribe_whenLastEventIdGiven_thenMissedEventsReplayed() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.publish("a");
+        broadcaster.publish("b");
+        broadcaster.publish("c");
+
+        broadcaster.subscribe("1", event -> true);
+
+        assertEquals(List.of("b", "c"), emitter.payloads());
+    }
+
+    @Test
+    void subscribe_whenLastEventIdUnknown_thenRetainedEventsReplayed() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.publish("a");
+        broadcaster.publish("b");
+
+        broadcaster.subscribe("42", event -> true);
+
+        assertEquals(List.of("a", "b"), emitter.payloads());
+    }
+
+    @Test
+    void subscribe_whenNoLastEventId_thenOnlyNewEvents() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.publish("a");
+
+        broadcaster.subscribe(null, event -> true);
+        broadcaster.publish("b");
+
+        assertEquals(List.of("b"), emitter.payloads());
+        assertEquals(1, meterRegistry.get("shareit.sse.subscribers").tag("stream", "test").gauge().value());
+    }
+
+    @Test
+    void publish_whenSendFails_thenSubscriberRemoved() {
+        SseBroadcaster<String> broadcaster = broadcaster(Runnable::run);
+        broadcaster.subscribe(null, event -> true);
+        emitter.failing = true;
+
+        broadcaster.publish("a");
+
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void publish_whenWriteBlocksPastTimeout_thenSubscriberDroppedAndOthersStillServed() throws Exception {
+        properties.setWriteTimeout(Duration.ofMillis(100));
+        SseSenderPool senders = new SseSenderPool(1);
+        pools.add(senders);
+        BlockingEmitter stalled = new BlockingEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        Deque<SseEmitter> emitters = new ArrayDeque<>(List.of(stalled, healthy));
+        SseBroadcaster<String> broadcaster = new SseBroadcaster<>("test", properties, senders, meterRegistry) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return emitters.removeFirst();
+            }
+        };
+        broadcaster.subscribe(null, event -> true);
+        broadcaster.subscribe(null, event -> true);
+
+        broadcaster.publish("a");
+        assertTrue(stalled.writing.await(5, TimeUnit.SECONDS));
+        broadcaster.publish("b");
+
+        awaitPayloads(healthy, 2);
+        assertEquals(List.of("a", "b"), healthy.payloads());
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1, senders.pinned());
+
+        stalled.release.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, senders.pinned());
+    }
+
+    private SseBroadcaster<String> broadcaster(Executor executor) {
+        SseSenderPool senders = new SseSenderPool(executor);
+        pools.add(senders);
+        return new SseBroadcaster<>("test", properties, senders, meterRegistry) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return emitter;
+            }
+        };
+    }
+
+    private static void awaitPayloads(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.payloads().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Stands for a client that stopped reading: event writes block until released, as a servlet write would
+     * until the container's socket write timeout.
+     */
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (builder.build().stream().noneMatch(part -> part.getData().toString().contains("data:"))) {
+                return;
+            }
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream()
+                    .map(part -> part.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        private List<String> payloads() {
+            return sent.stream()
+                    .filter(event -> event.contains("data:"))
+                    .map(event -> event.substring(event.indexOf("data:") + 5, event.length() - 2))
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.transaction;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryOnConflictAspectTest {
+    private SimpleMeterRegistry meterRegistry;
+    private Updater target;
+    private Updater proxy;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new Updater();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new RetryOnConflictAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void retry_whenConflictThenSuccess_thenRetriedUntilSuccess() {
+        target.conflicts = 2;
+
+        assertEquals("updated", proxy.update());
+        assertEquals(3, target.calls.get());
+        assertEquals(2.0, meterRegistry.get("shareit.transaction.retries").counter().count());
+    }
+
+    @Test
+    void retry_whenConflictEveryAttempt_thenRethrowAfterMaxAttempts() {
+        target.conflicts = Integer.MAX_VALUE;
+
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.update());
+        assertEquals(3, target.calls.get());
+    }
+
+    @Test
+    void retry_whenJoiningOuterTransaction_thenNotRetried() {
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy.update());
+        assertEquals(1, target.calls.get());
+    }
+
+    static class Updater {
+        private final AtomicInteger calls = new AtomicInteger();
+        private int conflicts;
+
+        @RetryOnConflict
+        public String update() {
+            if (calls.incrementAndGet() <= conflicts) {
+                throw new OptimisticLockingFailureException("Row was updated by another transaction");
+            }
+            return "updated";
+        }
+    }
+}
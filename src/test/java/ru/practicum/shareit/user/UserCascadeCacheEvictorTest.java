@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemSearchEngine;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCascadeCacheEvictorTest {
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingAvailabilityIndex bookingAvailabilityIndex;
+    @InjectMocks
+    private UserCascadeCacheEvictor userCascadeCacheEvictor;
+
+    @Test
+    void evictCascadedFrom_whenInvoke_thenItemsAndBookingsLeaveTheIndexes() {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        when(itemRepository.findIdsByOwnerId(1L)).thenReturn(List.of(10L, 11L));
+        Booking booking = Booking.builder().id(20L).item(Item.builder().id(30L).build()).build();
+        when(bookingRepository.findByBookerIdAndStatusInAndEndAfter(Mockito.eq(1L), Mockito.eq(BookingStatus.HOLDING), Mockito.any()))
+                .thenReturn(List.of(booking));
+
+        userCascadeCacheEvictor.evictCascadedFrom(1L);
+
+        verify(itemSearchEngine).remove(10L);
+        verify(itemSearchEngine).remove(11L);
+        verify(bookingAvailabilityIndex).forget(List.of(10L, 11L), Map.of(30L, List.of(20L)));
+        verify(cache).evictEntityData(Item.class);
+        verify(cache).evictQueryRegions();
+    }
+}
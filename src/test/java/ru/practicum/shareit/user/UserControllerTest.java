@@ -8,10 +8,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequestService;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -142,10 +148,70 @@ class UserControllerTest {
 
     @SneakyThrows
     @Test
-    void getUsers_whenInvoke_returnUsersList() {
-        mockMvc.perform(get("/users")).andExpect(status().isOk());
+    void getUsers_whenNoPaging_thenStreamedAsJsonArray() {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(userDto);
+            return null;
+        }).when(userService).streamUsers(any());
+
+        MvcResult result = mockMvc.perform(get("/users"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(userDto, userDto)), content);
+        verify(userService, never()).getUsers(anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getUsers_whenFromAndSize_thenPageWithNextCursor() {
+        when(userService.getUsers(13, 1)).thenReturn(List.of(userDto));
+
+        MvcResult result = mockMvc.perform(get("/users")
+                        .param("from", "13")
+                        .param("size", "1"))
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(userDto.getId())))
+                .andReturn();
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(userDto)), content);
+        verify(userService, never()).streamUsers(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void getUsers_whenAfterAndPageNotFull_thenSeekWithoutNextCursor() {
+        String after = PageCursor.encode(7L);
+        when(userService.getUsersAfter(after, 10)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("after", after))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(userService).getUsersAfter(after, 10);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUsers_whenOnlyFrom_thenPageOfDefaultSize() {
+        when(userService.getUsers(20, 10)).thenReturn(List.of(userDto));
+
+        mockMvc.perform(get("/users")
+                        .param("from", "20"))
+                .andExpect(status().isOk());
 
-        verify(userService).getUsers();
+        verify(userService).getUsers(20, 10);
+        verify(userService, never()).streamUsers(any());
     }
 
     @SneakyThrows
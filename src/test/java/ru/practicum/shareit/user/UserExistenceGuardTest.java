@@ -0,0 +1,68 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.NotFoundException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceGuardTest {
+    @Mock
+    private UserRepository userRepository;
+    private UserExistenceGuard userExistenceGuard;
+
+    @BeforeEach
+    void init() {
+        userExistenceGuard = new UserExistenceGuard(userRepository);
+    }
+
+    @Test
+    void requireExists_whenUserNotFound_thenNotFoundException() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userExistenceGuard.requireExists(1L));
+    }
+
+    @Test
+    void requireExists_whenCheckedTwice_thenQueryOnce() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userExistenceGuard.requireExists(1L);
+        userExistenceGuard.requireExists(1L);
+
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void requireExists_whenNotFound_thenAnswerNotCached() {
+        when(userRepository.existsById(1L)).thenReturn(false, true);
+
+        assertThrows(NotFoundException.class, () -> userExistenceGuard.requireExists(1L));
+        assertDoesNotThrow(() -> userExistenceGuard.requireExists(1L));
+    }
+
+    @Test
+    void requireExists_whenRemembered_thenNoQuery() {
+        userExistenceGuard.remember(1L);
+
+        userExistenceGuard.requireExists(1L);
+
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void requireExists_whenForgotten_thenQueryAgain() {
+        when(userRepository.existsById(1L)).thenReturn(true, false);
+        userExistenceGuard.requireExists(1L);
+
+        userExistenceGuard.forget(1L);
+
+        assertThrows(NotFoundException.class, () -> userExistenceGuard.requireExists(1L));
+    }
+}
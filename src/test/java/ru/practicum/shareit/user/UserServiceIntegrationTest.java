@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,8 +9,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "db.name=test")
@@ -17,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class UserServiceIntegrationTest {
 
     private final UserService userService;
+    private final EntityManager entityManager;
     private UserDto savedUser;
 
     private UserDto updateUser;
@@ -51,4 +58,19 @@ public class UserServiceIntegrationTest {
         assertEquals(userDto.getEmail(), updateUser.getEmail());
     }
 
+    @Test
+    void streamUsers_whenInvoke_thenEveryUserReadAndNoneKeptInContext() {
+        UserDto other = userService.addUser(UserDto.builder()
+                .email("other@mail.ru")
+                .name("Vasa")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = new ArrayList<>();
+
+        userService.streamUsers(user -> ids.add(user.getId()));
+
+        assertTrue(ids.containsAll(List.of(savedUser.getId(), other.getId())));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
 }
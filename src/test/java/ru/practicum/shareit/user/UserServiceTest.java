@@ -5,10 +5,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.exception.BadDataException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,6 +27,14 @@ class UserServiceTest {
     private UserService userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserExistenceGuard userExistenceGuard;
+    @Mock
+    private UserCascadeCacheEvictor userCascadeCacheEvictor;
+    @Mock
+    private EntityManager entityManager;
+    @Captor
+    private ArgumentCaptor<Pageable> pageArgumentCaptor;
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
     private User user;
@@ -47,6 +63,7 @@ class UserServiceTest {
 
         assertEquals(actualUserDto, userDto);
         verify(userRepository).save(user);
+        verify(userExistenceGuard).remember(user.getId());
     }
 
     @Test
@@ -92,16 +109,53 @@ class UserServiceTest {
         userService.deleteUser(1L);
 
         verify(userRepository).deleteById(1L);
+        verify(userCascadeCacheEvictor).evictCascadedFrom(1L);
+        verify(userExistenceGuard).forget(1L);
     }
 
     @Test
     void getUsers_whenInvoke_thenReturnedUserDtoList() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findPage(Mockito.any())).thenReturn(List.of(user));
 
-        List<UserDto> users = userService.getUsers();
+        List<UserDto> users = userService.getUsers(13, 5);
 
         assertEquals(users.size(), 1);
         assertEquals(users.get(0).getId(), user.getId());
+        verify(userRepository).findPage(pageArgumentCaptor.capture());
+        assertEquals(3, pageArgumentCaptor.getValue().getPageNumber());
+        assertEquals(Sort.by("id"), pageArgumentCaptor.getValue().getSort());
+    }
+
+    @Test
+    void getUsersAfter_whenInvoke_thenSeekFromId() {
+        when(userRepository.findAfter(Mockito.eq(7L), Mockito.any())).thenReturn(List.of(user));
+
+        List<UserDto> users = userService.getUsersAfter(PageCursor.encode(7L), 5);
+
+        assertEquals(user.getId(), users.get(0).getId());
+        verify(userRepository).findAfter(Mockito.eq(7L), pageArgumentCaptor.capture());
+        assertEquals(0, pageArgumentCaptor.getValue().getPageNumber());
+        assertEquals(5, pageArgumentCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void getUsersAfter_whenRawId_thenBadDataException() {
+        assertThrows(BadDataException.class, () -> userService.getUsersAfter("7", 5));
+
+        verify(userRepository, never()).findAfter(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void streamUsers_whenInvoke_thenEveryUserPassedOnAndDetached() {
+        User other = User.builder().id(2L).email("other@mail.ru").name("Vasia").build();
+        when(userRepository.streamAll()).thenReturn(Stream.of(user, other));
+        List<UserDto> users = new ArrayList<>();
+
+        userService.streamUsers(users::add);
+
+        assertEquals(List.of(1L, 2L), users.stream().map(UserDto::getId).collect(Collectors.toList()));
+        verify(entityManager).detach(user);
+        verify(entityManager).detach(other);
     }
 
     @Test